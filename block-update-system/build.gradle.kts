@@ -1,3 +1,6 @@
 dependencies {
     compileOnly(project(":core"))
-}
\ No newline at end of file
+    compileOnly(project(":instance-meta"))
+
+    testImplementation(project(":core"))
+}
@@ -2,11 +2,14 @@ package net.minestom.vanilla;
 
 import net.minestom.server.utils.NamespaceID;
 import net.minestom.vanilla.blockupdatesystem.BlockUpdateManager;
+import net.minestom.vanilla.instancemeta.InstanceMetaFeature;
 import net.minestom.vanilla.logging.Loading;
 import net.minestom.vanilla.logging.Logger;
 import net.minestom.vanilla.randomticksystem.RandomTickManager;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Set;
+
 public class BlockUpdateFeature implements VanillaReimplementation.Feature {
     @Override
     public void hook(@NotNull HookContext context) {
@@ -19,8 +22,20 @@ public class BlockUpdateFeature implements VanillaReimplementation.Feature {
         Loading.finish();
     }
 
+    @Override
+    public void afterHook(@NotNull VanillaReimplementation vri) {
+        // Features depending on this one have registered their updatables and random tickables by now
+        BlockUpdateManager.freezeRegistry();
+        RandomTickManager.freezeRegistry();
+    }
+
     @Override
     public @NotNull NamespaceID namespaceId() {
         return NamespaceID.from("vri:blockupdate");
     }
+
+    @Override
+    public @NotNull Set<Class<? extends VanillaReimplementation.Feature>> dependencies() {
+        return Set.of(InstanceMetaFeature.class);
+    }
 }
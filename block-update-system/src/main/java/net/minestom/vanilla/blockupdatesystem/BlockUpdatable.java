@@ -11,4 +11,16 @@ public interface BlockUpdatable {
      * @param info The block update info.
      */
     void blockUpdate(@NotNull Instance instance, @NotNull Point pos, @NotNull BlockUpdateInfo info);
+
+    /**
+     * Called when a block is updated, with the position that triggered the update if there is one.
+     * <p>
+     * Override this method to ignore irrelevant updates cheaply. The context must not be kept after this call.
+     * </p>
+     *
+     * @param context The block update context.
+     */
+    default void blockUpdate(@NotNull Instance instance, @NotNull Point pos, @NotNull BlockUpdateContext context) {
+        blockUpdate(instance, pos, context.info());
+    }
 }
@@ -0,0 +1,167 @@
+package net.minestom.vanilla.blockupdatesystem;
+
+import net.minestom.server.utils.Direction;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The context of a block update: its cause, and the position of the block that triggered it if any.
+ * <p>
+ * Contexts are reused between updates to avoid allocating one per updated block, so they must not be kept after the
+ * update call returns.
+ * </p>
+ */
+public final class BlockUpdateContext {
+
+    private static final BlockUpdateContext DESTROY_BLOCK = new BlockUpdateContext(BlockUpdateInfo.DESTROY_BLOCK());
+    private static final BlockUpdateContext PLACE_BLOCK = new BlockUpdateContext(BlockUpdateInfo.PLACE_BLOCK());
+    private static final BlockUpdateContext CHUNK_LOAD = new BlockUpdateContext(BlockUpdateInfo.CHUNK_LOAD());
+    private static final BlockUpdateContext MOVE_BLOCK = new BlockUpdateContext(BlockUpdateInfo.MOVE_BLOCK());
+
+    private static final BlockUpdateContext SCHEDULED_DESTROY_BLOCK = new BlockUpdateContext(BlockUpdateInfo.DESTROY_BLOCK(), true);
+    private static final BlockUpdateContext SCHEDULED_PLACE_BLOCK = new BlockUpdateContext(BlockUpdateInfo.PLACE_BLOCK(), true);
+    private static final BlockUpdateContext SCHEDULED_CHUNK_LOAD = new BlockUpdateContext(BlockUpdateInfo.CHUNK_LOAD(), true);
+    private static final BlockUpdateContext SCHEDULED_MOVE_BLOCK = new BlockUpdateContext(BlockUpdateInfo.MOVE_BLOCK(), true);
+
+    // Directions by (offsetX + 1) * 9 + (offsetY + 1) * 3 + (offsetZ + 1), null for non-face neighbors
+    private static final Direction[] DIRECTIONS = new Direction[27];
+
+    static {
+        for (Direction direction : Direction.values()) {
+            int index = (direction.normalX() + 1) * 9 + (direction.normalY() + 1) * 3 + (direction.normalZ() + 1);
+            DIRECTIONS[index] = direction;
+        }
+    }
+
+    private final BlockUpdateInfo info;
+    private final boolean scheduled;
+    private boolean hasSource = false;
+    private int sourceX;
+    private int sourceY;
+    private int sourceZ;
+    private int offsetX;
+    private int offsetY;
+    private int offsetZ;
+
+    private BlockUpdateContext(@NotNull BlockUpdateInfo info) {
+        this(info, false);
+    }
+
+    private BlockUpdateContext(@NotNull BlockUpdateInfo info, boolean scheduled) {
+        this.info = info;
+        this.scheduled = scheduled;
+    }
+
+    /**
+     * Gets the context of an update with no source position, shared for the built-in causes.
+     *
+     * @param info the cause of the update
+     * @return the context
+     */
+    public static @NotNull BlockUpdateContext of(@NotNull BlockUpdateInfo info) {
+        if (info instanceof BlockUpdateInfo.DestroyBlock) return DESTROY_BLOCK;
+        if (info instanceof BlockUpdateInfo.PlaceBlock) return PLACE_BLOCK;
+        if (info instanceof BlockUpdateInfo.ChunkLoad) return CHUNK_LOAD;
+        if (info instanceof BlockUpdateInfo.MoveBlock) return MOVE_BLOCK;
+        return new BlockUpdateContext(info);
+    }
+
+    /**
+     * Gets the context of a tick scheduled with {@link BlockUpdateManager#scheduleTick}, shared for the built-in causes.
+     */
+    static @NotNull BlockUpdateContext scheduled(@NotNull BlockUpdateInfo info) {
+        if (info instanceof BlockUpdateInfo.DestroyBlock) return SCHEDULED_DESTROY_BLOCK;
+        if (info instanceof BlockUpdateInfo.PlaceBlock) return SCHEDULED_PLACE_BLOCK;
+        if (info instanceof BlockUpdateInfo.ChunkLoad) return SCHEDULED_CHUNK_LOAD;
+        if (info instanceof BlockUpdateInfo.MoveBlock) return SCHEDULED_MOVE_BLOCK;
+        return new BlockUpdateContext(info, true);
+    }
+
+    /**
+     * Creates a context for the neighbors of the given source, moved between neighbors with
+     * {@link #neighbor(int, int, int)}.
+     */
+    static @NotNull BlockUpdateContext sourced(@NotNull BlockUpdateInfo info, int sourceX, int sourceY, int sourceZ) {
+        BlockUpdateContext context = new BlockUpdateContext(info);
+        context.hasSource = true;
+        context.sourceX = sourceX;
+        context.sourceY = sourceY;
+        context.sourceZ = sourceZ;
+        return context;
+    }
+
+    void neighbor(int offsetX, int offsetY, int offsetZ) {
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+        this.offsetZ = offsetZ;
+    }
+
+    /**
+     * @return the cause of the update
+     */
+    public @NotNull BlockUpdateInfo info() {
+        return info;
+    }
+
+    /**
+     * @return true if this update is a tick scheduled with {@link BlockUpdateManager#scheduleTick}
+     */
+    public boolean scheduled() {
+        return scheduled;
+    }
+
+    /**
+     * @return true if this update was triggered by a change at a source position
+     */
+    public boolean hasSource() {
+        return hasSource;
+    }
+
+    public int sourceX() {
+        return sourceX;
+    }
+
+    public int sourceY() {
+        return sourceY;
+    }
+
+    public int sourceZ() {
+        return sourceZ;
+    }
+
+    /**
+     * @return the x offset from the source to the updated block, between -1 and 1
+     */
+    public int offsetX() {
+        return offsetX;
+    }
+
+    /**
+     * @return the y offset from the source to the updated block, between -1 and 1
+     */
+    public int offsetY() {
+        return offsetY;
+    }
+
+    /**
+     * @return the z offset from the source to the updated block, between -1 and 1
+     */
+    public int offsetZ() {
+        return offsetZ;
+    }
+
+    /**
+     * @return the direction from the source to the updated block, or null if they do not share a face
+     */
+    public @Nullable Direction direction() {
+        if (!hasSource) return null;
+        return DIRECTIONS[(offsetX + 1) * 9 + (offsetY + 1) * 3 + (offsetZ + 1)];
+    }
+
+    @Override
+    public String toString() {
+        if (!hasSource) return "BlockUpdateContext[info=" + info + ", scheduled=" + scheduled + "]";
+        return "BlockUpdateContext[info=" + info + ", source=" + sourceX + ", " + sourceY + ", " + sourceZ +
+                ", offset=" + offsetX + ", " + offsetY + ", " + offsetZ + "]";
+    }
+}
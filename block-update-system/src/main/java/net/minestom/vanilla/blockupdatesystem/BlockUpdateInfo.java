@@ -1,32 +1,42 @@
 package net.minestom.vanilla.blockupdatesystem;
 
+/**
+ * The cause of a block update. Each built-in cause is a shared singleton.
+ * <p>
+ * Other implementations are supported, but are stored and dispatched less efficiently than the built-in ones.
+ * </p>
+ */
 public interface BlockUpdateInfo {
 
     static DestroyBlock DESTROY_BLOCK() {
-        return new DestroyBlock();
+        return DestroyBlock.INSTANCE;
     }
 
     static PlaceBlock PLACE_BLOCK() {
-        return new PlaceBlock();
+        return PlaceBlock.INSTANCE;
     }
 
     static ChunkLoad CHUNK_LOAD() {
-        return new ChunkLoad();
+        return ChunkLoad.INSTANCE;
     }
 
     static MoveBlock MOVE_BLOCK() {
-        return new MoveBlock();
+        return MoveBlock.INSTANCE;
     }
 
     record DestroyBlock() implements BlockUpdateInfo {
+        private static final DestroyBlock INSTANCE = new DestroyBlock();
     }
 
     record PlaceBlock() implements BlockUpdateInfo {
+        private static final PlaceBlock INSTANCE = new PlaceBlock();
     }
 
     record ChunkLoad() implements BlockUpdateInfo {
+        private static final ChunkLoad INSTANCE = new ChunkLoad();
     }
 
     record MoveBlock() implements BlockUpdateInfo {
+        private static final MoveBlock INSTANCE = new MoveBlock();
     }
 }
@@ -1,50 +1,116 @@
 package net.minestom.vanilla.blockupdatesystem;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.longs.LongList;
 import it.unimi.dsi.fastutil.shorts.Short2ObjectMap;
 import it.unimi.dsi.fastutil.shorts.Short2ObjectOpenHashMap;
 import net.minestom.server.coordinate.Point;
-import net.minestom.server.coordinate.Pos;
 import net.minestom.server.coordinate.Vec;
 import net.minestom.server.event.Event;
 import net.minestom.server.event.EventNode;
 import net.minestom.server.event.instance.InstanceChunkLoadEvent;
+import net.minestom.server.event.instance.InstanceChunkUnloadEvent;
 import net.minestom.server.event.instance.InstanceTickEvent;
+import net.minestom.server.event.instance.InstanceUnregisterEvent;
 import net.minestom.server.event.player.PlayerBlockBreakEvent;
 import net.minestom.server.event.player.PlayerBlockPlaceEvent;
-import net.minestom.server.instance.Chunk;
 import net.minestom.server.instance.Instance;
-import net.minestom.server.instance.block.Block;
 import net.minestom.vanilla.VanillaReimplementation;
+import net.minestom.vanilla.randomticksystem.RandomTickIndex;
 import net.minestom.vanilla.randomticksystem.RandomTickManager;
 import net.minestom.vanilla.randomticksystem.RandomTickable;
+import net.minestom.vanilla.utils.BlockPosUtils;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.Collections;
-import java.util.LinkedHashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * A utility class used to facilitate block updates
  */
 public class BlockUpdateManager {
-    // Block update manager by instance
-    private static final Map<Instance, BlockUpdateManager> instance2BlockUpdateManager =
-            Collections.synchronizedMap(new WeakHashMap<>());
+    // Block update manager by instance, removed when the instance is unregistered
+    private static final Map<Instance, BlockUpdateManager> instance2BlockUpdateManager = new ConcurrentHashMap<>();
+
+    private static final @NotNull String DISPATCH_MODE_SYSTEM_PROPERTY = "vri.blockupdate.dispatch";
+    private static final @NotNull String TICK_BUDGET_SYSTEM_PROPERTY = "vri.blockupdate.tickbudget";
+    private static final @NotNull String PARALLEL_SYSTEM_PROPERTY = "vri.blockupdate.parallel";
+
+    // Below this amount of queued positions, partitioning costs more than it saves
+    private static final int PARALLEL_THRESHOLD = 256;
 
     // Block updatables
     private static final Short2ObjectMap<BlockUpdatable> blockUpdatables = new Short2ObjectOpenHashMap<>();
 
+    // Block updatables indexed by state id, built once the registry is frozen
+    private static volatile BlockUpdatable[] updatableTable = null;
+
     public static void registerUpdatable(short stateId, @NotNull BlockUpdatable updatable) {
         synchronized (blockUpdatables) {
+            if (updatableTable != null) {
+                throw new IllegalStateException("Block updatables cannot be registered after the registry is frozen");
+            }
             blockUpdatables.put(stateId, updatable);
         }
     }
 
+    /**
+     * Freezes the block updatable registry into a table indexed by state id.
+     * <p>
+     * This is called by {@link net.minestom.vanilla.BlockUpdateFeature} once all features have been hooked, so
+     * updatables must be registered while hooking. Once frozen, lookups do not need any synchronization and no more
+     * updatables can be registered. Before that, lookups read the registry under its lock.
+     * </p>
+     */
+    public static void freezeRegistry() {
+        synchronized (blockUpdatables) {
+            if (updatableTable != null) {
+                return;
+            }
+            int maxStateId = -1;
+            for (short stateId : blockUpdatables.keySet()) {
+                maxStateId = Math.max(maxStateId, stateId);
+            }
+            BlockUpdatable[] table = new BlockUpdatable[maxStateId + 1];
+            for (Short2ObjectMap.Entry<BlockUpdatable> entry : blockUpdatables.short2ObjectEntrySet()) {
+                table[entry.getShortKey()] = entry.getValue();
+            }
+            updatableTable = table;
+        }
+    }
+
+    /**
+     * Gets the block updatable registered for the given state id.
+     *
+     * @param stateId the state id
+     * @return the updatable, or null if none is registered
+     */
+    public static @Nullable BlockUpdatable getUpdatable(int stateId) {
+        BlockUpdatable[] table = updatableTable;
+        if (table == null) {
+            // Not frozen yet, such as when the manager is used without hooking the feature
+            synchronized (blockUpdatables) {
+                return blockUpdatables.get((short) stateId);
+            }
+        }
+        return stateId < table.length ? table[stateId] : null;
+    }
+
     public static void init(@NotNull VanillaReimplementation.Feature.HookContext context) {
         EventNode<Event> eventNode = context.vri().process().eventHandler();
 
         eventNode.addListener(InstanceTickEvent.class, BlockUpdateManager::instanceTick);
+        eventNode.addListener(InstanceUnregisterEvent.class, event ->
+                instance2BlockUpdateManager.remove(event.getInstance())
+        );
         eventNode.addListener(PlayerBlockBreakEvent.class, event ->
                 BlockUpdateManager.from(event.getPlayer().getInstance())
                         .scheduleNeighborsUpdate(event.getBlockPosition(),
@@ -56,27 +122,15 @@ public class BlockUpdateManager {
                                 BlockUpdateInfo.PLACE_BLOCK())
         );
         eventNode.addListener(InstanceChunkLoadEvent.class, event -> {
-            Chunk chunk = event.getChunk();
-            int minY = chunk.getMinSection() * Chunk.CHUNK_SECTION_SIZE;
-            int maxY = chunk.getMaxSection() * Chunk.CHUNK_SECTION_SIZE;
-            int minX = chunk.getChunkX() * Chunk.CHUNK_SIZE_X;
-            int minZ = chunk.getChunkZ() * Chunk.CHUNK_SIZE_Z;
-
-            Instance instance = event.getInstance();
-            BlockUpdateManager.from(instance);
-
-            synchronized (blockUpdatables) {
-                for (int x = minX; x < minX + Chunk.CHUNK_SIZE_X; x++) {
-                    for (int z = minZ; z < minZ + Chunk.CHUNK_SIZE_Z; z++) {
-                        for (int y = minY; y < maxY; y++) {
-                            Block block = chunk.getBlock(x, y, z);
-                            BlockUpdatable updatable = blockUpdatables.get(block.stateId());
-                            if (updatable == null) continue;
-                            updatable.blockUpdate(instance, new Vec(x, y, z), BlockUpdateInfo.CHUNK_LOAD());
-                        }
-                    }
-                }
-            }
+            BlockUpdateManager manager = BlockUpdateManager.from(event.getInstance());
+            ChunkLoadScanner.scanAsync(manager, event.getChunk());
+            manager.randomTickIndex.chunkLoaded(event.getChunk());
+        });
+        eventNode.addListener(InstanceChunkUnloadEvent.class, event -> {
+            // Chunks also unload while their instance unregisters, do not create a manager that would never be removed
+            BlockUpdateManager manager = instance2BlockUpdateManager.get(event.getInstance());
+            if (manager == null) return;
+            manager.randomTickIndex.chunkUnloaded(event.getChunkX(), event.getChunkZ());
         });
     }
 
@@ -86,20 +140,104 @@ public class BlockUpdateManager {
     }
 
     public static @NotNull BlockUpdateManager from(@NotNull Instance instance) {
+        // Plain lookup first, computeIfAbsent may lock even when the manager exists
+        BlockUpdateManager manager = instance2BlockUpdateManager.get(instance);
+        if (manager != null) {
+            return manager;
+        }
         return instance2BlockUpdateManager.computeIfAbsent(instance, BlockUpdateManager::new);
     }
 
-    private final Map<Point, BlockUpdateInfo> updateNeighbors = Collections.synchronizedMap(new LinkedHashMap<>());
+    // Positions whose neighbors are updated next tick, swapped with the processing queue at the start of each tick
+    private BlockUpdateQueue updateNeighbors = new BlockUpdateQueue();
+    private BlockUpdateQueue processingNeighbors = new BlockUpdateQueue();
+    private final Object updateNeighborsLock = new Object();
+
+    // Positions updated themselves next tick, swapped the same way as the neighbor queues
+    private BlockUpdateQueue updateBlocks = new BlockUpdateQueue();
+    private BlockUpdateQueue processingBlocks = new BlockUpdateQueue();
+    private final Object updateBlocksLock = new Object();
+
+    // Scheduled block ticks, run within the tick budget
+    private final ScheduledTickWheel scheduledTicks = new ScheduledTickWheel();
+    private final List<ScheduledTickWheel.ScheduledTick> drainedTicks = new ArrayList<>();
+    private volatile int tickBudget = Integer.getInteger(TICK_BUDGET_SYSTEM_PROPERTY, 65536);
+    private volatile int lastTickExecuted = 0;
+    private volatile int lastTickCarriedOver = 0;
+
+    // Whether neighbor updates are split into chunk islands run on the common pool
+    private volatile boolean parallel = Boolean.getBoolean(PARALLEL_SYSTEM_PROPERTY);
     private final BlockUpdateManager.UpdateHandler updateHandler;
 
+    // Random tickable counts of the instance's chunks, counted when they load
+    private final RandomTickIndex randomTickIndex = new RandomTickIndex();
+
     public BlockUpdateManager(@NotNull BlockUpdateManager.UpdateHandler updateHandler) {
         this.updateHandler = updateHandler;
     }
 
     private BlockUpdateManager(@NotNull Instance instance) {
-        this.updateHandler = (pos, info) -> {
-            if (instance.getBlock(pos).handler() instanceof BlockUpdatable updatable) {
-                updatable.blockUpdate(instance, pos, info);
+        DispatchMode mode = DispatchMode.valueOf(
+                System.getProperty(DISPATCH_MODE_SYSTEM_PROPERTY, DispatchMode.STATE_ID.name()).toUpperCase());
+        this.updateHandler = switch (mode) {
+            case STATE_ID -> stateIdHandler(instance);
+            case HANDLER -> blockHandlerHandler(instance);
+        };
+    }
+
+    /**
+     * How the default update handler finds the {@link BlockUpdatable} of an updated block.
+     */
+    public enum DispatchMode {
+        /**
+         * Looks up the block's state id in the frozen updatable registry.
+         */
+        STATE_ID,
+        /**
+         * Checks whether the block's {@link net.minestom.server.instance.block.BlockHandler} is updatable.
+         */
+        HANDLER
+    }
+
+    private static @NotNull UpdateHandler stateIdHandler(@NotNull Instance instance) {
+        return new UpdateHandler() {
+            @Override
+            public void update(@NotNull Point pos, @NotNull BlockUpdateInfo info) {
+                update(pos.blockX(), pos.blockY(), pos.blockZ(), info);
+            }
+
+            @Override
+            public void update(int x, int y, int z, @NotNull BlockUpdateInfo info) {
+                update(x, y, z, BlockUpdateContext.of(info));
+            }
+
+            @Override
+            public void update(int x, int y, int z, @NotNull BlockUpdateContext context) {
+                BlockUpdatable updatable = getUpdatable(instance.getBlock(x, y, z).stateId());
+                if (updatable != null) {
+                    updatable.blockUpdate(instance, new Vec(x, y, z), context);
+                }
+            }
+        };
+    }
+
+    private static @NotNull UpdateHandler blockHandlerHandler(@NotNull Instance instance) {
+        return new UpdateHandler() {
+            @Override
+            public void update(@NotNull Point pos, @NotNull BlockUpdateInfo info) {
+                update(pos.blockX(), pos.blockY(), pos.blockZ(), info);
+            }
+
+            @Override
+            public void update(int x, int y, int z, @NotNull BlockUpdateInfo info) {
+                update(x, y, z, BlockUpdateContext.of(info));
+            }
+
+            @Override
+            public void update(int x, int y, int z, @NotNull BlockUpdateContext context) {
+                if (instance.getBlock(x, y, z).handler() instanceof BlockUpdatable updatable) {
+                    updatable.blockUpdate(instance, new Vec(x, y, z), context);
+                }
             }
         };
     }
@@ -110,55 +248,325 @@ public class BlockUpdateManager {
 
     public interface UpdateHandler {
         void update(@NotNull Point pos, @NotNull BlockUpdateInfo info);
+
+        /**
+         * Updates the block at the given coordinates.
+         * <p>
+         * Override this method in hot handlers to avoid allocating a {@link Point} for every updated block.
+         * </p>
+         */
+        default void update(int x, int y, int z, @NotNull BlockUpdateInfo info) {
+            update(new Vec(x, y, z), info);
+        }
+
+        /**
+         * Updates the block at the given coordinates, with the position that triggered the update if there is one.
+         * The context must not be kept after this call.
+         */
+        default void update(int x, int y, int z, @NotNull BlockUpdateContext context) {
+            update(x, y, z, context.info());
+        }
     }
 
     // Public api methods
 
+    /**
+     * @return the random tickable counts of this manager's instance
+     */
+    public @NotNull RandomTickIndex randomTickIndex() {
+        return randomTickIndex;
+    }
+
     /**
      * Schedules this position's neighbors to be updated next tick.
      */
     public void scheduleNeighborsUpdate(Point pos, BlockUpdateInfo info) {
-        updateNeighbors.put(pos, info);
+        scheduleNeighborsUpdate(pos.blockX(), pos.blockY(), pos.blockZ(), info);
+    }
+
+    /**
+     * Schedules this position's neighbors to be updated next tick.
+     */
+    public void scheduleNeighborsUpdate(int x, int y, int z, BlockUpdateInfo info) {
+        long position = BlockPosUtils.asLong(x, y, z);
+        synchronized (updateNeighborsLock) {
+            updateNeighbors.offer(position, info);
+        }
+    }
+
+    /**
+     * Schedules the block at this position to be updated next tick.
+     */
+    public void scheduleUpdate(int x, int y, int z, BlockUpdateInfo info) {
+        long position = BlockPosUtils.asLong(x, y, z);
+        synchronized (updateBlocksLock) {
+            updateBlocks.offer(position, info);
+        }
+    }
+
+    /**
+     * Schedules the blocks at these packed positions to be updated next tick.
+     *
+     * @see BlockPosUtils#asLong(int, int, int)
+     */
+    public void scheduleUpdates(LongList positions, BlockUpdateInfo info) {
+        synchronized (updateBlocksLock) {
+            for (int i = 0; i < positions.size(); i++) {
+                updateBlocks.offer(positions.getLong(i), info);
+            }
+        }
+    }
+
+    /**
+     * Schedules a tick for the block at this position, like vanilla's scheduled block ticks.
+     *
+     * @param pos   the position of the block
+     * @param info  the update info passed to the block
+     * @param delay the delay in ticks, delays below 1 run next tick
+     * @return false if the block already had a tick scheduled
+     */
+    public boolean scheduleTick(Point pos, BlockUpdateInfo info, int delay) {
+        return scheduleTick(pos, info, delay, TickPriority.NORMAL);
+    }
+
+    /**
+     * Schedules a tick for the block at this position, like vanilla's scheduled block ticks.
+     * <p>
+     * Ticks due on the same game tick run in priority order. If more ticks are due than the tick budget allows, the
+     * remaining ones are carried over to the next tick.
+     * </p>
+     *
+     * @param pos      the position of the block
+     * @param info     the update info passed to the block
+     * @param delay    the delay in ticks, delays below 1 run next tick
+     * @param priority the priority of the tick
+     * @return false if the block already had a tick scheduled
+     */
+    public boolean scheduleTick(Point pos, BlockUpdateInfo info, int delay, TickPriority priority) {
+        return scheduleTick(pos.blockX(), pos.blockY(), pos.blockZ(), info, delay, priority);
+    }
+
+    /**
+     * @see #scheduleTick(Point, BlockUpdateInfo, int, TickPriority)
+     */
+    public boolean scheduleTick(int x, int y, int z, BlockUpdateInfo info, int delay, TickPriority priority) {
+        return scheduledTicks.schedule(BlockPosUtils.asLong(x, y, z), info, delay, priority);
+    }
+
+    /**
+     * @return true if the block at this position has a tick scheduled
+     */
+    public boolean hasScheduledTick(Point pos) {
+        return scheduledTicks.isScheduled(BlockPosUtils.asLong(pos));
+    }
+
+    /**
+     * @return the maximum amount of scheduled ticks run per instance tick
+     */
+    public int tickBudget() {
+        return tickBudget;
+    }
+
+    /**
+     * Sets the maximum amount of scheduled ticks run per instance tick.
+     *
+     * @param tickBudget the new budget, must be positive
+     */
+    public void tickBudget(int tickBudget) {
+        if (tickBudget <= 0) {
+            throw new IllegalArgumentException("Tick budget must be positive: " + tickBudget);
+        }
+        this.tickBudget = tickBudget;
+    }
+
+    /**
+     * @return the amount of scheduled ticks waiting to run, including the carried over ones
+     */
+    public int scheduledTickCount() {
+        return scheduledTicks.size();
+    }
+
+    /**
+     * @return the amount of positions waiting for a next tick block or neighbor update
+     */
+    public int pendingUpdateCount() {
+        int count;
+        synchronized (updateBlocksLock) {
+            count = updateBlocks.size();
+        }
+        synchronized (updateNeighborsLock) {
+            count += updateNeighbors.size();
+        }
+        return count;
+    }
+
+    /**
+     * @return the amount of scheduled ticks run during the last instance tick
+     */
+    public int lastTickExecutedCount() {
+        return lastTickExecuted;
+    }
+
+    /**
+     * @return the amount of due scheduled ticks carried over to the next tick, because of the tick budget
+     */
+    public int lastTickCarriedOverCount() {
+        return lastTickCarriedOver;
+    }
+
+    /**
+     * @return true if neighbor updates are run in parallel
+     */
+    public boolean parallel() {
+        return parallel;
+    }
+
+    /**
+     * Sets whether neighbor updates are run in parallel.
+     * <p>
+     * When enabled, queued neighbor updates are split into islands of chunks far enough from each other to be
+     * independent, and each island is run on the common {@link ForkJoinPool}. Updates crossing a chunk boundary are
+     * run serially afterwards. Only enable this if all registered {@link BlockUpdatable}s are thread-safe and only
+     * touch blocks in the chunks around them.
+     * </p>
+     *
+     * @param parallel true to run neighbor updates in parallel
+     */
+    public void parallel(boolean parallel) {
+        this.parallel = parallel;
     }
 
     // Public api methods end
 
     private void tick(int duration) {
+        runScheduledTicks();
+        updateBlocks(duration);
         updateNeighbors(duration);
     }
 
-    private void updateNeighbors(int duration) {
-        if (updateNeighbors.size() == 0) {
-            return;
+    private void runScheduledTicks() {
+        scheduledTicks.advance();
+        scheduledTicks.drain(tickBudget, drainedTicks);
+
+        try {
+            for (ScheduledTickWheel.ScheduledTick tick : drainedTicks) {
+                long pos = tick.position();
+                updateHandler.update(BlockPosUtils.getX(pos), BlockPosUtils.getY(pos), BlockPosUtils.getZ(pos),
+                        BlockUpdateContext.scheduled(tick.info()));
+            }
+        } finally {
+            lastTickExecuted = drainedTicks.size();
+            lastTickCarriedOver = scheduledTicks.readyCount();
+            drainedTicks.clear();
+        }
+    }
+
+    private void updateBlocks(int duration) {
+        BlockUpdateQueue queue;
+        synchronized (updateBlocksLock) {
+            if (updateBlocks.isEmpty()) {
+                return;
+            }
+            queue = updateBlocks;
+            updateBlocks = processingBlocks;
+            processingBlocks = queue;
         }
 
-        // Update all the neighbors
-        for (Map.Entry<Point, BlockUpdateInfo> entry : updateNeighbors.entrySet()) {
-            Point pos = entry.getKey();
-            BlockUpdateInfo info = entry.getValue();
+        for (int i = 0; i < queue.size(); i++) {
+            long pos = queue.position(i);
+            updateHandler.update(BlockPosUtils.getX(pos), BlockPosUtils.getY(pos), BlockPosUtils.getZ(pos),
+                    BlockUpdateContext.of(queue.info(i)));
+        }
 
-            int x = pos.blockX();
-            int y = pos.blockY();
-            int z = pos.blockZ();
+        queue.clear();
+    }
+
+    private void updateNeighbors(int duration) {
+        // Swap the queues, so updates scheduled while processing are run next tick
+        BlockUpdateQueue queue;
+        synchronized (updateNeighborsLock) {
+            if (updateNeighbors.isEmpty()) {
+                return;
+            }
+            queue = updateNeighbors;
+            updateNeighbors = processingNeighbors;
+            processingNeighbors = queue;
+        }
 
-            // For each surrounding block
-            for (int offsetX = -1; offsetX < 2; offsetX++) {
-                for (int offsetY = -1; offsetY < 2; offsetY++) {
-                    for (int offsetZ = -1; offsetZ < 2; offsetZ++) {
+        try {
+            if (parallel && queue.size() >= PARALLEL_THRESHOLD) {
+                updateNeighborsParallel(queue);
+            } else {
+                for (int i = 0; i < queue.size(); i++) {
+                    updateNeighborsOf(queue, i);
+                }
+            }
+        } finally {
+            queue.clear();
+        }
+    }
 
-                        // If block is not the original block
-                        if (offsetX == 0 && offsetY == 0 && offsetZ == 0) {
-                            continue;
-                        }
+    private void updateNeighborsParallel(BlockUpdateQueue queue) {
+        IntList serial = new IntArrayList();
+        List<IntList> islands = RegionPartitioner.partition(queue, serial);
 
-                        // Get the block handler at the position
-                        Point blockPos = new Pos(x + offsetX, y + offsetY, z + offsetZ);
-                        updateHandler.update(blockPos, info);
+        if (islands.size() > 1) {
+            List<Callable<Void>> tasks = new ArrayList<>(islands.size());
+            for (IntList island : islands) {
+                tasks.add(() -> {
+                    for (int i = 0; i < island.size(); i++) {
+                        updateNeighborsOf(queue, island.getInt(i));
                     }
+                    return null;
+                });
+            }
+            for (Future<Void> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                } catch (ExecutionException e) {
+                    throw new RuntimeException(e.getCause());
                 }
             }
+        } else {
+            for (IntList island : islands) {
+                for (int i = 0; i < island.size(); i++) {
+                    updateNeighborsOf(queue, island.getInt(i));
+                }
+            }
+        }
+
+        // Updates crossing chunk boundaries
+        for (int i = 0; i < serial.size(); i++) {
+            updateNeighborsOf(queue, serial.getInt(i));
         }
+    }
+
+    private void updateNeighborsOf(BlockUpdateQueue queue, int index) {
+        long pos = queue.position(index);
+        BlockUpdateInfo info = queue.info(index);
+
+        int x = BlockPosUtils.getX(pos);
+        int y = BlockPosUtils.getY(pos);
+        int z = BlockPosUtils.getZ(pos);
+        BlockUpdateContext context = BlockUpdateContext.sourced(info, x, y, z);
+
+        // For each surrounding block
+        for (int offsetX = -1; offsetX < 2; offsetX++) {
+            for (int offsetY = -1; offsetY < 2; offsetY++) {
+                for (int offsetZ = -1; offsetZ < 2; offsetZ++) {
 
-        updateNeighbors.clear();
+                    // If block is not the original block
+                    if (offsetX == 0 && offsetY == 0 && offsetZ == 0) {
+                        continue;
+                    }
+
+                    context.neighbor(offsetX, offsetY, offsetZ);
+                    updateHandler.update(x + offsetX, y + offsetY, z + offsetZ, context);
+                }
+            }
+        }
     }
 }
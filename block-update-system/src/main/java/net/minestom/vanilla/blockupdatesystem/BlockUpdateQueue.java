@@ -0,0 +1,105 @@
+package net.minestom.vanilla.blockupdatesystem;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * An insertion-ordered queue of block positions, packed as longs, with the kind of update scheduled for each one.
+ * <p>
+ * Positions are deduplicated; offering a position that is already queued replaces its kind but keeps its place in
+ * the queue. This class is not thread-safe.
+ * </p>
+ */
+class BlockUpdateQueue {
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private static final byte DESTROY_BLOCK = 0;
+    private static final byte PLACE_BLOCK = 1;
+    private static final byte CHUNK_LOAD = 2;
+    private static final byte MOVE_BLOCK = 3;
+    // Any other cause, kept as is in the custom infos array
+    private static final byte CUSTOM = 4;
+
+    private static final BlockUpdateInfo[] KIND_TO_INFO = {
+            BlockUpdateInfo.DESTROY_BLOCK(),
+            BlockUpdateInfo.PLACE_BLOCK(),
+            BlockUpdateInfo.CHUNK_LOAD(),
+            BlockUpdateInfo.MOVE_BLOCK()
+    };
+
+    // Packed position -> index in the arrays below
+    private final Long2IntOpenHashMap indices = new Long2IntOpenHashMap();
+    private long[] positions = new long[DEFAULT_CAPACITY];
+    private byte[] kinds = new byte[DEFAULT_CAPACITY];
+    private BlockUpdateInfo[] customInfos = new BlockUpdateInfo[DEFAULT_CAPACITY];
+    private int size = 0;
+
+    BlockUpdateQueue() {
+        indices.defaultReturnValue(-1);
+    }
+
+    /**
+     * Queues the given position, or replaces the kind of update if the position is already queued.
+     *
+     * @param position the packed position
+     * @param info     the update info
+     */
+    void offer(long position, @NotNull BlockUpdateInfo info) {
+        byte kind = kindOf(info);
+        BlockUpdateInfo customInfo = kind == CUSTOM ? info : null;
+        int index = indices.get(position);
+        if (index != -1) {
+            kinds[index] = kind;
+            customInfos[index] = customInfo;
+            return;
+        }
+
+        if (size == positions.length) {
+            int newCapacity = positions.length * 2;
+            positions = Arrays.copyOf(positions, newCapacity);
+            kinds = Arrays.copyOf(kinds, newCapacity);
+            customInfos = Arrays.copyOf(customInfos, newCapacity);
+        }
+
+        indices.put(position, size);
+        positions[size] = position;
+        kinds[size] = kind;
+        customInfos[size] = customInfo;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    long position(int index) {
+        return positions[index];
+    }
+
+    @NotNull BlockUpdateInfo info(int index) {
+        byte kind = kinds[index];
+        return kind == CUSTOM ? customInfos[index] : KIND_TO_INFO[kind];
+    }
+
+    void clear() {
+        indices.clear();
+        // Do not keep custom infos alive
+        Arrays.fill(customInfos, 0, size, null);
+        size = 0;
+    }
+
+    private static byte kindOf(@NotNull BlockUpdateInfo info) {
+        if (info instanceof BlockUpdateInfo.DestroyBlock) return DESTROY_BLOCK;
+        if (info instanceof BlockUpdateInfo.PlaceBlock) return PLACE_BLOCK;
+        if (info instanceof BlockUpdateInfo.ChunkLoad) return CHUNK_LOAD;
+        if (info instanceof BlockUpdateInfo.MoveBlock) return MOVE_BLOCK;
+        return CUSTOM;
+    }
+}
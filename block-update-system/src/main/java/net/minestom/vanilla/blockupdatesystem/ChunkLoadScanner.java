@@ -0,0 +1,87 @@
+package net.minestom.vanilla.blockupdatesystem;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minestom.server.instance.Chunk;
+import net.minestom.server.instance.palette.Palette;
+import net.minestom.vanilla.utils.BlockPosUtils;
+import net.minestom.vanilla.utils.PaletteUtils;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Finds the updatable blocks of newly loaded chunks, using the section palettes to skip sections that cannot contain
+ * any.
+ * <p>
+ * The blocks found are not updated during the chunk load, they receive a {@link BlockUpdateInfo.ChunkLoad} update on
+ * the next instance tick.
+ * </p>
+ */
+class ChunkLoadScanner {
+
+    private ChunkLoadScanner() {
+    }
+
+    /**
+     * Scans the given chunk off the tick thread, and queues a {@link BlockUpdateInfo.ChunkLoad} update for every
+     * updatable block found.
+     *
+     * @param manager the block update manager of the chunk's instance
+     * @param chunk   the loaded chunk
+     * @return a future completed once all updates have been queued
+     */
+    static @NotNull CompletableFuture<Void> scanAsync(@NotNull BlockUpdateManager manager, @NotNull Chunk chunk) {
+        int minSection = chunk.getMinSection();
+        int maxSection = chunk.getMaxSection();
+        Palette[] palettes = new Palette[maxSection - minSection];
+
+        // Snapshot the palettes so that the scan does not race with block changes
+        synchronized (chunk) {
+            for (int section = minSection; section < maxSection; section++) {
+                Palette palette = chunk.getSection(section).blockPalette();
+                if (palette.count() == 0) continue; // Only air
+                palettes[section - minSection] = palette.clone();
+            }
+        }
+
+        int minX = chunk.getChunkX() * Chunk.CHUNK_SIZE_X;
+        int minZ = chunk.getChunkZ() * Chunk.CHUNK_SIZE_Z;
+        return CompletableFuture.runAsync(() -> {
+            LongArrayList positions = new LongArrayList();
+            for (int i = 0; i < palettes.length; i++) {
+                Palette palette = palettes[i];
+                if (palette == null) continue;
+                int minY = (minSection + i) * Chunk.CHUNK_SECTION_SIZE;
+                scanSection(palette, minX, minY, minZ, positions);
+            }
+            if (!positions.isEmpty()) {
+                manager.scheduleUpdates(positions, BlockUpdateInfo.CHUNK_LOAD());
+            }
+        });
+    }
+
+    private static void scanSection(@NotNull Palette palette, int minX, int minY, int minZ,
+                                    @NotNull LongArrayList positions) {
+        if (palette.bitsPerEntry() == 0) {
+            // Single value palette, the whole section is the same block
+            if (BlockUpdateManager.getUpdatable(palette.get(0, 0, 0)) == null) return;
+            int dimension = palette.dimension();
+            for (int x = 0; x < dimension; x++) {
+                for (int y = 0; y < dimension; y++) {
+                    for (int z = 0; z < dimension; z++) {
+                        positions.add(BlockPosUtils.asLong(minX + x, minY + y, minZ + z));
+                    }
+                }
+            }
+            return;
+        }
+
+        // Skip sections whose palette holds no updatable state
+        if (!PaletteUtils.mayContain(palette, stateId -> BlockUpdateManager.getUpdatable(stateId) != null)) return;
+
+        palette.getAllPresent((x, y, z, stateId) -> {
+            if (BlockUpdateManager.getUpdatable(stateId) == null) return;
+            positions.add(BlockPosUtils.asLong(minX + x, minY + y, minZ + z));
+        });
+    }
+}
@@ -0,0 +1,106 @@
+package net.minestom.vanilla.blockupdatesystem;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minestom.server.instance.Chunk;
+import net.minestom.server.utils.chunk.ChunkUtils;
+import net.minestom.vanilla.utils.BlockPosUtils;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits queued neighbor updates into chunk islands that can be processed concurrently.
+ * <p>
+ * An update whose neighbors all lie in its own chunk is assigned to that chunk. Chunks closer than three chunks to
+ * each other are joined into the same island, so the 3x3 chunk areas around two islands never overlap, and a
+ * handler reading or writing blocks next to an updated block cannot race with another island. Updates whose
+ * neighbors cross a chunk boundary are left for a serial pass.
+ * </p>
+ */
+class RegionPartitioner {
+
+    private static final int ISLAND_DISTANCE = 2;
+
+    private RegionPartitioner() {
+    }
+
+    /**
+     * Partitions the given queue.
+     *
+     * @param queue  the neighbor update queue
+     * @param serial receives the indices of the updates that must run serially
+     * @return the islands, each a list of queue indices in queue order
+     */
+    static @NotNull List<IntList> partition(@NotNull BlockUpdateQueue queue, @NotNull IntList serial) {
+        Long2ObjectMap<IntList> chunk2Updates = new Long2ObjectOpenHashMap<>();
+        for (int i = 0; i < queue.size(); i++) {
+            long pos = queue.position(i);
+            int localX = BlockPosUtils.getX(pos) & (Chunk.CHUNK_SIZE_X - 1);
+            int localZ = BlockPosUtils.getZ(pos) & (Chunk.CHUNK_SIZE_Z - 1);
+            if (localX == 0 || localX == Chunk.CHUNK_SIZE_X - 1 || localZ == 0 || localZ == Chunk.CHUNK_SIZE_Z - 1) {
+                serial.add(i);
+                continue;
+            }
+            long chunk = ChunkUtils.getChunkIndex(BlockPosUtils.getX(pos) >> 4, BlockPosUtils.getZ(pos) >> 4);
+            chunk2Updates.computeIfAbsent(chunk, ignored -> new IntArrayList()).add(i);
+        }
+
+        // Union every chunk with the updated chunks around it
+        Long2LongOpenHashMap parents = new Long2LongOpenHashMap();
+        for (long chunk : chunk2Updates.keySet()) {
+            parents.put(chunk, chunk);
+        }
+        for (long chunk : chunk2Updates.keySet()) {
+            int chunkX = ChunkUtils.getChunkCoordX(chunk);
+            int chunkZ = ChunkUtils.getChunkCoordZ(chunk);
+            for (int offsetX = -ISLAND_DISTANCE; offsetX <= ISLAND_DISTANCE; offsetX++) {
+                for (int offsetZ = -ISLAND_DISTANCE; offsetZ <= ISLAND_DISTANCE; offsetZ++) {
+                    long other = ChunkUtils.getChunkIndex(chunkX + offsetX, chunkZ + offsetZ);
+                    if (other == chunk || !parents.containsKey(other)) continue;
+                    union(parents, chunk, other);
+                }
+            }
+        }
+
+        Long2ObjectMap<IntArrayList> root2Island = new Long2ObjectOpenHashMap<>();
+        for (Long2ObjectMap.Entry<IntList> entry : chunk2Updates.long2ObjectEntrySet()) {
+            long root = find(parents, entry.getLongKey());
+            root2Island.computeIfAbsent(root, ignored -> new IntArrayList()).addAll(entry.getValue());
+        }
+
+        List<IntList> islands = new ArrayList<>(root2Island.size());
+        for (IntArrayList island : root2Island.values()) {
+            IntArrays.quickSort(island.elements(), 0, island.size());
+            islands.add(island);
+        }
+        return islands;
+    }
+
+    private static long find(Long2LongOpenHashMap parents, long chunk) {
+        long root = chunk;
+        while (parents.get(root) != root) {
+            root = parents.get(root);
+        }
+        // Path compression
+        while (parents.get(chunk) != root) {
+            long next = parents.get(chunk);
+            parents.put(chunk, root);
+            chunk = next;
+        }
+        return root;
+    }
+
+    private static void union(Long2LongOpenHashMap parents, long a, long b) {
+        long rootA = find(parents, a);
+        long rootB = find(parents, b);
+        if (rootA != rootB) {
+            parents.put(rootA, rootB);
+        }
+    }
+}
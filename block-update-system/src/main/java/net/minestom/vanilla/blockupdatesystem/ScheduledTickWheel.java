@@ -0,0 +1,118 @@
+package net.minestom.vanilla.blockupdatesystem;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * A timing wheel of scheduled block ticks.
+ * <p>
+ * Ticks are stored in the bucket of the game tick they are due on, modulo the wheel size; ticks scheduled further
+ * than one wheel revolution ahead simply stay in their bucket until their lap comes around. Due ticks are moved to
+ * a ready queue, ordered like vanilla by due tick, priority and scheduling order, and are drained from it within a
+ * per-tick budget. Anything left in the ready queue is carried over to the next tick.
+ * </p>
+ * <p>
+ * A position can only be scheduled once at a time. This class is thread-safe.
+ * </p>
+ */
+class ScheduledTickWheel {
+
+    private static final int WHEEL_SIZE = 256;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    private static final Comparator<ScheduledTick> ORDER = Comparator
+            .comparingLong(ScheduledTick::dueTick)
+            .thenComparingInt(ScheduledTick::priority)
+            .thenComparingLong(ScheduledTick::order);
+
+    private final List<List<ScheduledTick>> buckets = new ArrayList<>(WHEEL_SIZE);
+    private final PriorityQueue<ScheduledTick> ready = new PriorityQueue<>(ORDER);
+    private final LongOpenHashSet scheduled = new LongOpenHashSet();
+
+    private long currentTick = 0;
+    private long nextOrder = 0;
+
+    ScheduledTickWheel() {
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            buckets.add(new ArrayList<>());
+        }
+    }
+
+    record ScheduledTick(long position, @NotNull BlockUpdateInfo info, long dueTick, int priority, long order) {
+    }
+
+    /**
+     * Schedules a tick at the given position.
+     *
+     * @param position the packed position
+     * @param info     the update info
+     * @param delay    the delay in ticks, delays below 1 run next tick
+     * @param priority the priority
+     * @return false if the position already had a scheduled tick
+     */
+    synchronized boolean schedule(long position, @NotNull BlockUpdateInfo info, int delay,
+                                  @NotNull TickPriority priority) {
+        if (!scheduled.add(position)) {
+            return false;
+        }
+        long dueTick = currentTick + Math.max(1, delay);
+        ScheduledTick tick = new ScheduledTick(position, info, dueTick, priority.value(), nextOrder++);
+        buckets.get((int) (dueTick & WHEEL_MASK)).add(tick);
+        return true;
+    }
+
+    synchronized boolean isScheduled(long position) {
+        return scheduled.contains(position);
+    }
+
+    /**
+     * Advances the wheel by one tick, moving all ticks due now into the ready queue.
+     */
+    synchronized void advance() {
+        currentTick++;
+        List<ScheduledTick> bucket = buckets.get((int) (currentTick & WHEEL_MASK));
+        if (bucket.isEmpty()) {
+            return;
+        }
+        bucket.removeIf(tick -> {
+            if (tick.dueTick() > currentTick) return false;
+            ready.add(tick);
+            return true;
+        });
+    }
+
+    /**
+     * Removes up to {@code budget} ready ticks, in execution order.
+     * The drained positions can be scheduled again straight away.
+     *
+     * @param budget the maximum amount of ticks to drain
+     * @param into   the list to add the ticks to
+     */
+    synchronized void drain(int budget, @NotNull List<ScheduledTick> into) {
+        for (int i = 0; i < budget; i++) {
+            ScheduledTick tick = ready.poll();
+            if (tick == null) return;
+            scheduled.remove(tick.position());
+            into.add(tick);
+        }
+    }
+
+    /**
+     * @return the amount of due ticks that have not run yet
+     */
+    synchronized int readyCount() {
+        return ready.size();
+    }
+
+    /**
+     * @return the amount of ticks scheduled, including the ready ones
+     */
+    synchronized int size() {
+        return scheduled.size();
+    }
+}
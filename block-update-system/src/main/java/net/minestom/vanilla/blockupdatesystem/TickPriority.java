@@ -0,0 +1,27 @@
+package net.minestom.vanilla.blockupdatesystem;
+
+/**
+ * The priority of a scheduled block tick. Ticks due on the same game tick run in priority order, highest first.
+ */
+public enum TickPriority {
+    EXTREMELY_HIGH(-3),
+    VERY_HIGH(-2),
+    HIGH(-1),
+    NORMAL(0),
+    LOW(1),
+    VERY_LOW(2),
+    EXTREMELY_LOW(3);
+
+    private final int value;
+
+    TickPriority(int value) {
+        this.value = value;
+    }
+
+    /**
+     * @return the value of this priority, lower values run first
+     */
+    public int value() {
+        return value;
+    }
+}
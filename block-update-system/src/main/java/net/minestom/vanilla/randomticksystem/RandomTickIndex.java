@@ -0,0 +1,141 @@
+package net.minestom.vanilla.randomticksystem;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minestom.server.instance.Chunk;
+import net.minestom.server.instance.Instance;
+import net.minestom.server.instance.palette.Palette;
+import net.minestom.server.utils.chunk.ChunkUtils;
+import net.minestom.vanilla.utils.PaletteUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Counts the random tickable blocks of every chunk section of an instance, for diagnostics.
+ * <p>
+ * Chunks are counted off the tick thread when they load, and recounted on request with {@link #recount}. Counts do not
+ * follow block changes in between, and random ticking does not read them. Chunks that have not been counted yet have
+ * no counts.
+ * </p>
+ */
+public class RandomTickIndex {
+
+    // Chunk index -> random tickable count per section, from the chunk's min section
+    private final Long2ObjectMap<int[]> chunk2Counts = new Long2ObjectOpenHashMap<>();
+    // Chunk index -> token of the count in progress, counts finishing with another token are dropped
+    private final Long2ObjectMap<Object> pendingCounts = new Long2ObjectOpenHashMap<>();
+
+    /**
+     * Counts the sections of a newly loaded chunk off the tick thread.
+     *
+     * @param chunk the loaded chunk
+     * @return a future completed once the chunk's counts are available
+     */
+    public @NotNull CompletableFuture<Void> chunkLoaded(@NotNull Chunk chunk) {
+        int minSection = chunk.getMinSection();
+        int maxSection = chunk.getMaxSection();
+        Palette[] palettes = new Palette[maxSection - minSection];
+
+        // Snapshot the palettes so that counting does not race with block changes
+        synchronized (chunk) {
+            for (int section = minSection; section < maxSection; section++) {
+                Palette palette = chunk.getSection(section).blockPalette();
+                if (palette.count() == 0) continue; // Only air
+                palettes[section - minSection] = palette.clone();
+            }
+        }
+
+        long chunkIndex = ChunkUtils.getChunkIndex(chunk.getChunkX(), chunk.getChunkZ());
+        Object token = new Object();
+        synchronized (this) {
+            pendingCounts.put(chunkIndex, token);
+        }
+        return CompletableFuture.runAsync(() -> {
+            int[] counts = new int[palettes.length];
+            for (int i = 0; i < palettes.length; i++) {
+                if (palettes[i] != null) {
+                    counts[i] = count(palettes[i]);
+                }
+            }
+            synchronized (this) {
+                // Unloaded, or loaded again, while counting
+                if (pendingCounts.get(chunkIndex) != token) return;
+                pendingCounts.remove(chunkIndex);
+                chunk2Counts.put(chunkIndex, counts);
+            }
+        });
+    }
+
+    public synchronized void chunkUnloaded(int chunkX, int chunkZ) {
+        long chunkIndex = ChunkUtils.getChunkIndex(chunkX, chunkZ);
+        chunk2Counts.remove(chunkIndex);
+        pendingCounts.remove(chunkIndex);
+    }
+
+    /**
+     * Recounts every loaded chunk of an instance off the calling thread. Counts are kept until their recount is
+     * done.
+     *
+     * @param instance the instance this index belongs to
+     * @return a future completed once every chunk has been recounted
+     */
+    public @NotNull CompletableFuture<Void> recount(@NotNull Instance instance) {
+        return CompletableFuture.allOf(instance.getChunks().stream()
+                .map(this::chunkLoaded)
+                .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Gets the random tickable count of every section of a chunk, starting from the chunk's min section.
+     * The returned array must not be modified.
+     *
+     * @param chunkIndex the chunk index
+     * @return the counts, or null if the chunk has not been counted yet
+     */
+    public synchronized int @Nullable [] sectionCounts(long chunkIndex) {
+        return chunk2Counts.get(chunkIndex);
+    }
+
+    /**
+     * Gets the total random tickable count of a chunk.
+     *
+     * @param chunkIndex the chunk index
+     * @return the count, or -1 if the chunk has not been counted yet
+     */
+    public int chunkCount(long chunkIndex) {
+        int[] counts = sectionCounts(chunkIndex);
+        if (counts == null) return -1;
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * @return the indices of all counted chunks
+     */
+    public synchronized long @NotNull [] countedChunks() {
+        return chunk2Counts.keySet().toLongArray();
+    }
+
+    private static int count(@NotNull Palette palette) {
+        if (palette.count() == 0) return 0; // Only air
+        if (!PaletteUtils.mayContain(palette, stateId -> RandomTickManager.getRandomTickable(stateId) != null)) {
+            return 0;
+        }
+        if (palette.bitsPerEntry() == 0) {
+            // Single value palette, the whole section is the same block
+            if (RandomTickManager.getRandomTickable(palette.get(0, 0, 0)) == null) return 0;
+            return palette.dimension() * palette.dimension() * palette.dimension();
+        }
+
+        int[] count = {0};
+        palette.getAllPresent((x, y, z, stateId) -> {
+            if (RandomTickManager.getRandomTickable(stateId) != null) count[0]++;
+        });
+        return count[0];
+    }
+}
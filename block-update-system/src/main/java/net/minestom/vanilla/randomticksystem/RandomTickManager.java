@@ -1,5 +1,7 @@
 package net.minestom.vanilla.randomticksystem;
 
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import it.unimi.dsi.fastutil.shorts.Short2ObjectMap;
 import it.unimi.dsi.fastutil.shorts.Short2ObjectOpenHashMap;
 import net.minestom.server.coordinate.Point;
@@ -8,23 +10,51 @@ import net.minestom.server.event.instance.InstanceTickEvent;
 import net.minestom.server.instance.Chunk;
 import net.minestom.server.instance.Instance;
 import net.minestom.server.instance.block.Block;
+import net.minestom.server.instance.palette.Palette;
+import net.minestom.server.utils.chunk.ChunkUtils;
 import net.minestom.vanilla.VanillaReimplementation;
+import net.minestom.vanilla.instancemeta.InstanceMetaFeature;
+import net.minestom.vanilla.instancemeta.gamerules.GameRules;
+import net.minestom.vanilla.instancemeta.tickets.TicketManager;
+import net.minestom.vanilla.utils.PaletteUtils;
+import net.minestom.vanilla.utils.SeedUtils;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.random.RandomGenerator;
 
 public class RandomTickManager {
 
-    private static final @NotNull String RANDOM_TICK_SYSTEM_PROPERTY = "vri.gamerule.randomtickspeed";
+    private static final @NotNull String PARALLEL_SYSTEM_PROPERTY = "vri.randomtick.parallel";
+    private static final @NotNull String TICKET_AWARE_SYSTEM_PROPERTY = "vri.randomtick.ticketaware";
+
+    // Below this amount of chunks, splitting them across threads costs more than it saves
+    private static final int PARALLEL_THRESHOLD = 64;
+
+    private static final @NotNull String SUBSYSTEM = "vri:randomtick";
 
     private static final Map<VanillaReimplementation, RandomTickManager> vri2managers =
             Collections.synchronizedMap(new WeakHashMap<>());
     private static final Short2ObjectMap<RandomTickable> randomTickables = new Short2ObjectOpenHashMap<>();
 
+    // Random tickables indexed by state id, built once the registry is frozen
+    private static volatile RandomTickable[] randomTickableTable = null;
+
     private final VanillaReimplementation vri;
+    private volatile boolean parallel = Boolean.getBoolean(PARALLEL_SYSTEM_PROPERTY);
+    private volatile boolean ticketAware = Boolean.getBoolean(TICKET_AWARE_SYSTEM_PROPERTY);
+
     private RandomTickManager(VanillaReimplementation vri) {
         this.vri = vri;
     }
@@ -36,48 +66,244 @@ public class RandomTickManager {
     public static void init(VanillaReimplementation.Feature.@NotNull HookContext context) {
         RandomTickManager manager = create(context.vri());
         context.vri().process().eventHandler().addListener(InstanceTickEvent.class, event -> {
-            int randomTickCount = Integer.parseInt(System.getProperty(RANDOM_TICK_SYSTEM_PROPERTY, "3"));
+            int randomTickCount = GameRules.randomTickSpeed(event.getInstance());
+            if (randomTickCount <= 0) return;
             manager.handleInstanceTick(event, randomTickCount);
         });
     }
 
     public static void registerRandomTickable(short stateId, RandomTickable randomTickable) {
         synchronized (randomTickables) {
+            if (randomTickableTable != null) {
+                throw new IllegalStateException("Random tickables cannot be registered after the registry is frozen");
+            }
             randomTickables.put(stateId, randomTickable);
         }
     }
 
+    /**
+     * Freezes the random tickable registry into a table indexed by state id.
+     * <p>
+     * This is called by {@link net.minestom.vanilla.BlockUpdateFeature} once all features have been hooked, so
+     * random tickables must be registered while hooking. Once frozen, lookups do not need any synchronization and no
+     * more random tickables can be registered.
+     * </p>
+     */
+    public static void freezeRegistry() {
+        synchronized (randomTickables) {
+            if (randomTickableTable != null) {
+                return;
+            }
+            randomTickableTable = buildTable();
+        }
+    }
+
+    private static RandomTickable[] buildTable() {
+        int maxStateId = -1;
+        for (short stateId : randomTickables.keySet()) {
+            maxStateId = Math.max(maxStateId, stateId);
+        }
+        RandomTickable[] table = new RandomTickable[maxStateId + 1];
+        for (Short2ObjectMap.Entry<RandomTickable> entry : randomTickables.short2ObjectEntrySet()) {
+            table[entry.getShortKey()] = entry.getValue();
+        }
+        return table;
+    }
+
+    private static RandomTickable[] randomTickableTable() {
+        RandomTickable[] table = randomTickableTable;
+        if (table == null) {
+            // Not frozen yet, such as when the manager is used without hooking the feature
+            synchronized (randomTickables) {
+                return buildTable();
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Gets the random tickable registered for a block state.
+     *
+     * @param stateId the state id
+     * @return the random tickable, or null if the state is not random tickable
+     */
+    public static @Nullable RandomTickable getRandomTickable(int stateId) {
+        RandomTickable[] table = randomTickableTable;
+        if (table == null) {
+            synchronized (randomTickables) {
+                return randomTickables.get((short) stateId);
+            }
+        }
+        return get(table, stateId);
+    }
+
+    private static @Nullable RandomTickable get(RandomTickable[] table, int stateId) {
+        return stateId < table.length ? table[stateId] : null;
+    }
+
+    /**
+     * @return true if chunks are random ticked in parallel
+     */
+    public boolean parallel() {
+        return parallel;
+    }
+
+    /**
+     * Sets whether the chunks of an instance are random ticked in parallel.
+     * <p>
+     * When enabled, the chunks of a ticking instance are split across the common {@link ForkJoinPool}. Only enable
+     * this if all registered {@link RandomTickable}s are thread-safe. Random ticks are drawn from a per-chunk random
+     * derived from the instance seed and the tick, so the same blocks are ticked whether this is enabled or not.
+     * </p>
+     *
+     * @param parallel true to random tick chunks in parallel
+     */
+    public void parallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * @return true if only entity ticking chunks are random ticked
+     */
+    public boolean ticketAware() {
+        return ticketAware;
+    }
+
+    /**
+     * Sets whether only entity ticking chunks are random ticked, like vanilla.
+     * <p>
+     * When enabled, only the loaded chunks in {@link TicketManager#entityTickingChunks()} of the instance's ticket
+     * manager are random ticked, instead of every loaded chunk. Chunks without a ticket, such as preloaded or border
+     * chunks, are then never random ticked.
+     * </p>
+     *
+     * @param ticketAware true to only random tick entity ticking chunks
+     */
+    public void ticketAware(boolean ticketAware) {
+        this.ticketAware = ticketAware;
+    }
+
+    private @NotNull Collection<Chunk> tickingChunks(@NotNull Instance instance) {
+        if (!ticketAware) {
+            return instance.getChunks();
+        }
+
+        TicketManager ticketManager = vri.feature(InstanceMetaFeature.class).ticketManager(instance);
+        LongSet entityTickingChunks = ticketManager.entityTickingChunks();
+        List<Chunk> chunks = new ArrayList<>(entityTickingChunks.size());
+        LongIterator iterator = entityTickingChunks.iterator();
+        while (iterator.hasNext()) {
+            long chunkIndex = iterator.nextLong();
+            Chunk chunk = instance.getChunk(ChunkUtils.getChunkCoordX(chunkIndex), ChunkUtils.getChunkCoordZ(chunkIndex));
+            if (chunk != null) {
+                chunks.add(chunk);
+            }
+        }
+        return chunks;
+    }
+
     private void handleInstanceTick(InstanceTickEvent event, int randomTickCount) {
         Instance instance = event.getInstance();
-        Random instanceRandom = vri.random(instance);
-        synchronized (randomTickables) {
-            for (Chunk chunk : instance.getChunks()) {
-                int minSection = chunk.getMinSection();
-                int maxSection = chunk.getMaxSection();
-                for (int section = minSection; section < maxSection; section++) {
-                    for (int i = 0; i < randomTickCount; i++) {
-                        randomTickSection(instanceRandom, instance, chunk, section);
-                    }
+        RandomTickable[] table = randomTickableTable();
+        if (table.length == 0) return;
+
+        // Every chunk derives its own random from the tick, so the result does not depend on the thread it runs on
+        long tick = instance.getWorldAge();
+        long instanceSeed = vri.instanceSeed(instance);
+        Collection<Chunk> chunks = tickingChunks(instance);
+
+        if (!parallel || chunks.size() < PARALLEL_THRESHOLD) {
+            for (Chunk chunk : chunks) {
+                randomTickChunk(table, instance, instanceSeed, chunk, tick, randomTickCount);
+            }
+            return;
+        }
+
+        List<Chunk> chunkList = List.copyOf(chunks);
+        int batchCount = Math.min(ForkJoinPool.getCommonPoolParallelism(), chunkList.size());
+        int batchSize = (chunkList.size() + batchCount - 1) / batchCount;
+        List<Callable<Void>> tasks = new ArrayList<>(batchCount);
+        for (int start = 0; start < chunkList.size(); start += batchSize) {
+            List<Chunk> batch = chunkList.subList(start, Math.min(start + batchSize, chunkList.size()));
+            tasks.add(() -> {
+                for (Chunk chunk : batch) {
+                    randomTickChunk(table, instance, instanceSeed, chunk, tick, randomTickCount);
                 }
+                return null;
+            });
+        }
+        for (Future<Void> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
             }
         }
     }
 
-    private void randomTickSection(Random random, Instance instance, Chunk chunk, int minSection) {
+    private void randomTickChunk(RandomTickable[] table, Instance instance, long instanceSeed, Chunk chunk, long tick,
+                                 int randomTickCount) {
+        long chunkIndex = ChunkUtils.getChunkIndex(chunk.getChunkX(), chunk.getChunkZ());
+
+        // Same seed as vri.randomSeed(instance, chunkIndex, tick, SUBSYSTEM), without looking the instance up again
+        long randomState = SeedUtils.derive(instanceSeed, chunkIndex, tick, SUBSYSTEM);
+
+        int minSection = chunk.getMinSection();
+        int maxSection = chunk.getMaxSection();
+        for (int section = minSection; section < maxSection; section++) {
+            Palette palette = chunk.getSection(section).blockPalette();
+            boolean mayContain;
+            // Random ticks of neighboring chunks can set blocks here, read the palette values under the chunk's lock
+            synchronized (chunk) {
+                mayContain = palette.count() != 0
+                        && PaletteUtils.mayContain(palette, stateId -> get(table, stateId) != null);
+            }
+            if (!mayContain) {
+                // Advance the random like a sampled section would, to keep other sections deterministic
+                randomState += SeedUtils.GOLDEN_GAMMA * randomTickCount;
+                continue;
+            }
+
+            randomState = randomTickSection(table, randomState, instance, chunk, palette, section, randomTickCount);
+        }
+    }
+
+    /**
+     * Random ticks a section.
+     *
+     * @return the new state of the chunk's random
+     */
+    private long randomTickSection(RandomTickable[] table, long randomState, Instance instance, Chunk chunk,
+                                   Palette palette, int section, int randomTickCount) {
         int minX = chunk.getChunkX() * Chunk.CHUNK_SIZE_X;
         int minZ = chunk.getChunkZ() * Chunk.CHUNK_SIZE_Z;
-        int minY = minSection * Chunk.CHUNK_SECTION_SIZE;
+        int minY = section * Chunk.CHUNK_SECTION_SIZE;
+
+        for (int i = 0; i < randomTickCount; i++) {
+            // One random int per sample, 4 bits per local coordinate
+            randomState += SeedUtils.GOLDEN_GAMMA;
+            int bits = (int) (SeedUtils.mix64(randomState) >>> 32);
+            int localX = bits & 15;
+            int localY = (bits >> 4) & 15;
+            int localZ = (bits >> 8) & 15;
 
-        int x = minX + random.nextInt(Chunk.CHUNK_SIZE_X);
-        int z = minZ + random.nextInt(Chunk.CHUNK_SIZE_Z);
-        int y = minY + random.nextInt(Chunk.CHUNK_SECTION_SIZE);
-        Point pos = new Vec(x, y, z);
+            RandomTickable randomTickable = get(table, palette.get(localX, localY, localZ));
+            if (randomTickable == null) continue;
 
-        Block block = instance.getBlock(x, y, z);
-        RandomTickable randomTickable = randomTickables.get(block.stateId());
-        if (randomTickable == null) return;
-        randomTickable.randomTick(new RandomTick(instance, pos, block));
+            int x = minX + localX;
+            int y = minY + localY;
+            int z = minZ + localZ;
+            Block block = chunk.getBlock(x, y, z);
+            // Seeded from the sample, mixed once more so that it does not repeat the next sample
+            RandomGenerator random = new SplittableRandom(SeedUtils.mix64(randomState));
+            randomTickable.randomTick(new RandomTick(instance, new Vec(x, y, z), block, random));
+        }
+        return randomState;
     }
 
-    private record RandomTick(Instance instance, Point position, Block block) implements RandomTickable.RandomTick {}
+    private record RandomTick(Instance instance, Point position, Block block, RandomGenerator random)
+            implements RandomTickable.RandomTick {}
 }
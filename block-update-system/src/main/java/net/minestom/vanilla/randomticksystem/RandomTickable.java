@@ -5,6 +5,8 @@ import net.minestom.server.instance.Instance;
 import net.minestom.server.instance.block.Block;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.random.RandomGenerator;
+
 public interface RandomTickable {
 
     void randomTick(@NotNull RandomTick randomTick);
@@ -13,5 +15,11 @@ public interface RandomTickable {
         @NotNull Instance instance();
         @NotNull Point position();
         @NotNull Block block();
+
+        /**
+         * Gets a random for this random tick, derived from the instance, chunk and tick.
+         * It must not be used outside of the random tick.
+         */
+        @NotNull RandomGenerator random();
     }
 }
@@ -0,0 +1,92 @@
+package net.minestom.vanilla.blockupdatesystem;
+
+import net.minestom.vanilla.utils.BlockPosUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlockUpdateQueueTest {
+
+    private static final BlockUpdateInfo[] INFOS = {
+            BlockUpdateInfo.DESTROY_BLOCK(),
+            BlockUpdateInfo.PLACE_BLOCK(),
+            BlockUpdateInfo.CHUNK_LOAD(),
+            BlockUpdateInfo.MOVE_BLOCK()
+    };
+
+    private record CustomInfo(int id) implements BlockUpdateInfo {
+    }
+
+    @Test
+    void deduplicatesAndKeepsFirstPlace() {
+        BlockUpdateQueue queue = new BlockUpdateQueue();
+        long a = BlockPosUtils.asLong(1, 2, 3);
+        long b = BlockPosUtils.asLong(-4, 5, -6);
+
+        queue.offer(a, BlockUpdateInfo.DESTROY_BLOCK());
+        queue.offer(b, BlockUpdateInfo.PLACE_BLOCK());
+        queue.offer(a, BlockUpdateInfo.CHUNK_LOAD());
+
+        assertEquals(2, queue.size());
+        assertEquals(a, queue.position(0));
+        assertSame(BlockUpdateInfo.CHUNK_LOAD(), queue.info(0));
+        assertEquals(b, queue.position(1));
+        assertSame(BlockUpdateInfo.PLACE_BLOCK(), queue.info(1));
+    }
+
+    @Test
+    void keepsCustomInfos() {
+        BlockUpdateQueue queue = new BlockUpdateQueue();
+        CustomInfo custom = new CustomInfo(7);
+        long a = BlockPosUtils.asLong(0, 0, 0);
+
+        queue.offer(a, custom);
+        assertSame(custom, queue.info(0));
+
+        queue.offer(a, BlockUpdateInfo.MOVE_BLOCK());
+        assertSame(BlockUpdateInfo.MOVE_BLOCK(), queue.info(0));
+    }
+
+    @Test
+    void clearEmptiesTheQueue() {
+        BlockUpdateQueue queue = new BlockUpdateQueue();
+        queue.offer(BlockPosUtils.asLong(1, 1, 1), BlockUpdateInfo.PLACE_BLOCK());
+        queue.clear();
+
+        assertTrue(queue.isEmpty());
+        queue.offer(BlockPosUtils.asLong(1, 1, 1), BlockUpdateInfo.DESTROY_BLOCK());
+        assertEquals(1, queue.size());
+        assertSame(BlockUpdateInfo.DESTROY_BLOCK(), queue.info(0));
+    }
+
+    @Test
+    void matchesLinkedHashMap() {
+        // The queue replaced a LinkedHashMap<Point, BlockUpdateInfo>, it must iterate the same way
+        Random random = new Random(42);
+        BlockUpdateQueue queue = new BlockUpdateQueue();
+        Map<Long, BlockUpdateInfo> expected = new LinkedHashMap<>();
+
+        for (int i = 0; i < 10_000; i++) {
+            long position = BlockPosUtils.asLong(random.nextInt(32) - 16, random.nextInt(32) - 16,
+                    random.nextInt(32) - 16);
+            BlockUpdateInfo info = random.nextInt(8) == 0 ? new CustomInfo(i) : INFOS[random.nextInt(INFOS.length)];
+            queue.offer(position, info);
+            expected.put(position, info);
+        }
+
+        List<Long> positions = new ArrayList<>();
+        for (int i = 0; i < queue.size(); i++) {
+            positions.add(queue.position(i));
+            assertEquals(expected.get(queue.position(i)), queue.info(i));
+        }
+        assertEquals(new ArrayList<>(expected.keySet()), positions);
+    }
+}
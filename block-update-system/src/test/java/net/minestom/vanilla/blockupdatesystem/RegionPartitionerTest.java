@@ -0,0 +1,102 @@
+package net.minestom.vanilla.blockupdatesystem;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import net.minestom.vanilla.utils.BlockPosUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RegionPartitionerTest {
+
+    @Test
+    void sendsChunkBorderUpdatesToTheSerialPass() {
+        BlockUpdateQueue queue = new BlockUpdateQueue();
+        queue.offer(BlockPosUtils.asLong(0, 64, 5), BlockUpdateInfo.PLACE_BLOCK());
+        queue.offer(BlockPosUtils.asLong(15, 64, 5), BlockUpdateInfo.PLACE_BLOCK());
+        queue.offer(BlockPosUtils.asLong(5, 64, -1), BlockUpdateInfo.PLACE_BLOCK());
+        queue.offer(BlockPosUtils.asLong(5, 64, 5), BlockUpdateInfo.PLACE_BLOCK());
+
+        IntList serial = new IntArrayList();
+        List<IntList> islands = RegionPartitioner.partition(queue, serial);
+
+        assertEquals(IntList.of(0, 1, 2), serial);
+        assertEquals(List.of(IntList.of(3)), islands);
+    }
+
+    @Test
+    void joinsChunksCloserThanThreeChunks() {
+        BlockUpdateQueue queue = new BlockUpdateQueue();
+        queue.offer(BlockPosUtils.asLong(5, 64, 5), BlockUpdateInfo.PLACE_BLOCK());
+        // Two chunks away, shares a neighbor chunk with the first one
+        queue.offer(BlockPosUtils.asLong(2 * 16 + 5, 64, 5), BlockUpdateInfo.PLACE_BLOCK());
+        // Three chunks further, independent
+        queue.offer(BlockPosUtils.asLong(5 * 16 + 5, 64, 5), BlockUpdateInfo.PLACE_BLOCK());
+
+        IntList serial = new IntArrayList();
+        List<IntList> islands = RegionPartitioner.partition(queue, serial);
+
+        assertTrue(serial.isEmpty());
+        assertEquals(2, islands.size());
+        assertTrue(islands.contains(IntList.of(0, 1)));
+        assertTrue(islands.contains(IntList.of(2)));
+    }
+
+    @Test
+    void partitionsEveryUpdateIntoIndependentIslands() {
+        Random random = new Random(3);
+        for (int run = 0; run < 50; run++) {
+            BlockUpdateQueue queue = new BlockUpdateQueue();
+            int count = random.nextInt(500);
+            for (int i = 0; i < count; i++) {
+                queue.offer(BlockPosUtils.asLong(random.nextInt(400) - 200, random.nextInt(64),
+                        random.nextInt(400) - 200), BlockUpdateInfo.PLACE_BLOCK());
+            }
+
+            IntList serial = new IntArrayList();
+            List<IntList> islands = RegionPartitioner.partition(queue, serial);
+
+            // Every update is in exactly one island or in the serial pass
+            int[] seen = new int[queue.size()];
+            for (int i = 0; i < serial.size(); i++) {
+                seen[serial.getInt(i)]++;
+                assertTrue(isOnChunkBorder(queue.position(serial.getInt(i))));
+            }
+            for (IntList island : islands) {
+                for (int i = 0; i < island.size(); i++) {
+                    seen[island.getInt(i)]++;
+                    assertTrue(i == 0 || island.getInt(i - 1) < island.getInt(i), "island not in queue order");
+                    assertTrue(!isOnChunkBorder(queue.position(island.getInt(i))));
+                }
+            }
+            for (int i = 0; i < seen.length; i++) {
+                assertEquals(1, seen[i], "update " + i);
+            }
+
+            // The 3x3 chunk areas around two islands never overlap
+            for (int a = 0; a < islands.size(); a++) {
+                for (int b = a + 1; b < islands.size(); b++) {
+                    for (int i : islands.get(a)) {
+                        for (int j : islands.get(b)) {
+                            long first = queue.position(i);
+                            long second = queue.position(j);
+                            int distanceX = Math.abs((BlockPosUtils.getX(first) >> 4) - (BlockPosUtils.getX(second) >> 4));
+                            int distanceZ = Math.abs((BlockPosUtils.getZ(first) >> 4) - (BlockPosUtils.getZ(second) >> 4));
+                            assertTrue(Math.max(distanceX, distanceZ) > 2, "islands " + a + " and " + b + " touch");
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isOnChunkBorder(long position) {
+        int localX = BlockPosUtils.getX(position) & 15;
+        int localZ = BlockPosUtils.getZ(position) & 15;
+        return localX == 0 || localX == 15 || localZ == 0 || localZ == 15;
+    }
+}
@@ -0,0 +1,111 @@
+package net.minestom.vanilla.blockupdatesystem;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScheduledTickWheelTest {
+
+    private static final TickPriority[] PRIORITIES = TickPriority.values();
+
+    @Test
+    void rejectsAlreadyScheduledPositions() {
+        ScheduledTickWheel wheel = new ScheduledTickWheel();
+        assertTrue(wheel.schedule(1, BlockUpdateInfo.PLACE_BLOCK(), 5, TickPriority.NORMAL));
+        assertFalse(wheel.schedule(1, BlockUpdateInfo.PLACE_BLOCK(), 1, TickPriority.HIGH));
+        assertTrue(wheel.isScheduled(1));
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    void runsTicksScheduledMoreThanOneLapAhead() {
+        ScheduledTickWheel wheel = new ScheduledTickWheel();
+        wheel.schedule(1, BlockUpdateInfo.PLACE_BLOCK(), 300, TickPriority.NORMAL);
+
+        List<ScheduledTickWheel.ScheduledTick> drained = new ArrayList<>();
+        for (int tick = 1; tick < 300; tick++) {
+            wheel.advance();
+            wheel.drain(Integer.MAX_VALUE, drained);
+            assertTrue(drained.isEmpty(), "ran early on tick " + tick);
+        }
+        wheel.advance();
+        wheel.drain(Integer.MAX_VALUE, drained);
+        assertEquals(1, drained.size());
+        assertFalse(wheel.isScheduled(1));
+    }
+
+    @Test
+    void carriesOverTicksAboveTheBudget() {
+        ScheduledTickWheel wheel = new ScheduledTickWheel();
+        for (long position = 0; position < 10; position++) {
+            wheel.schedule(position, BlockUpdateInfo.PLACE_BLOCK(), 1, TickPriority.NORMAL);
+        }
+
+        List<ScheduledTickWheel.ScheduledTick> drained = new ArrayList<>();
+        wheel.advance();
+        wheel.drain(4, drained);
+        assertEquals(4, drained.size());
+        assertEquals(6, wheel.readyCount());
+
+        drained.clear();
+        wheel.advance();
+        wheel.drain(4, drained);
+        assertEquals(List.of(4L, 5L, 6L, 7L), drained.stream().map(ScheduledTickWheel.ScheduledTick::position).toList());
+    }
+
+    @Test
+    void matchesPriorityQueue() {
+        // Reference: every tick in one queue ordered like vanilla, drained within the same budget
+        Comparator<long[]> order = Comparator.<long[]>comparingLong(tick -> tick[1])
+                .thenComparingLong(tick -> tick[2])
+                .thenComparingLong(tick -> tick[3]);
+        PriorityQueue<long[]> expected = new PriorityQueue<>(order);
+        LongOpenHashSet expectedScheduled = new LongOpenHashSet();
+        long nextOrder = 0;
+
+        Random random = new Random(7);
+        ScheduledTickWheel wheel = new ScheduledTickWheel();
+        List<ScheduledTickWheel.ScheduledTick> drained = new ArrayList<>();
+
+        for (long currentTick = 0; currentTick < 2_000; currentTick++) {
+            int scheduleCount = random.nextInt(20);
+            for (int i = 0; i < scheduleCount; i++) {
+                long position = random.nextInt(500);
+                int delay = random.nextInt(10) == 0 ? random.nextInt(1_000) : random.nextInt(8);
+                TickPriority priority = PRIORITIES[random.nextInt(PRIORITIES.length)];
+
+                boolean added = expectedScheduled.add(position);
+                assertEquals(added, wheel.schedule(position, BlockUpdateInfo.PLACE_BLOCK(), delay, priority));
+                if (added) {
+                    expected.add(new long[]{position, currentTick + Math.max(1, delay), priority.value(), nextOrder++});
+                }
+            }
+
+            wheel.advance();
+            int budget = 1 + random.nextInt(15);
+            wheel.drain(budget, drained);
+
+            List<Long> expectedPositions = new ArrayList<>();
+            while (expectedPositions.size() < budget && !expected.isEmpty()
+                    && expected.peek()[1] <= currentTick + 1) {
+                long position = expected.poll()[0];
+                expectedScheduled.remove(position);
+                expectedPositions.add(position);
+            }
+
+            assertEquals(expectedPositions, drained.stream().map(ScheduledTickWheel.ScheduledTick::position).toList(),
+                    "tick " + currentTick);
+            assertEquals(expectedScheduled.size(), wheel.size());
+            drained.clear();
+        }
+    }
+}
@@ -8,33 +8,32 @@ import net.minestom.server.instance.Instance;
 import net.minestom.server.instance.block.Block;
 import net.minestom.vanilla.VanillaRegistry;
 import net.minestom.vanilla.blockupdatesystem.BlockUpdatable;
+import net.minestom.vanilla.blockupdatesystem.BlockUpdateContext;
 import net.minestom.vanilla.blockupdatesystem.BlockUpdateInfo;
 import net.minestom.vanilla.blockupdatesystem.BlockUpdateManager;
 import net.minestom.vanilla.entitymeta.EntityTags;
 import org.jetbrains.annotations.NotNull;
 
 public class GravityBlockBehaviour extends VanillaBlockBehaviour implements BlockUpdatable {
+    // Vanilla's delay between a gravity block losing its support and falling
+    private static final int FALL_DELAY = 2;
+
     public GravityBlockBehaviour(@NotNull VanillaBlocks.BlockContext context) {
         super(context);
     }
 
     @Override
     public void onPlace(@NotNull VanillaPlacement placement) {
-        Instance instance = placement.instance();
-        Point position = placement.position();
-        Block block = placement.blockToPlace();
-
-        if (checkFall(instance, position, block)) {
-            placement.blockToPlace(Block.AIR);
-        }
+        BlockUpdateManager.from(placement.instance())
+                .scheduleTick(placement.position(), BlockUpdateInfo.PLACE_BLOCK(), FALL_DELAY);
     }
 
     /**
-     * Checks if a block should fall
+     * Makes the block fall if the block below does not support it
      *
      * @param instance the instance the block is in
      * @param position the position of the block
-     * @return true if the block should fall
+     * @return true if the block fell
      */
     public boolean checkFall(Instance instance, Point position, Block block) {
         Block below = instance.getBlock(position.blockX(), position.blockY() - 1, position.blockZ());
@@ -44,7 +43,8 @@ public class GravityBlockBehaviour extends VanillaBlockBehaviour implements Bloc
             return false;
         }
 
-        // Schedule block update
+        // Replace the block with the falling entity
+        instance.setBlock(position, Block.AIR);
         BlockUpdateManager.from(instance).scheduleNeighborsUpdate(position, BlockUpdateInfo.MOVE_BLOCK());
 
         // Create the context
@@ -60,6 +60,20 @@ public class GravityBlockBehaviour extends VanillaBlockBehaviour implements Bloc
 
     @Override
     public void blockUpdate(@NotNull Instance instance, @NotNull Point pos, @NotNull BlockUpdateInfo info) {
-        checkFall(instance, pos, instance.getBlock(pos));
+        // Fall on a scheduled tick, so the updates of a collapsing column are spread over the tick wheel
+        BlockUpdateManager.from(instance).scheduleTick(pos, info, FALL_DELAY);
+    }
+
+    @Override
+    public void blockUpdate(@NotNull Instance instance, @NotNull Point pos, @NotNull BlockUpdateContext context) {
+        if (context.scheduled()) {
+            checkFall(instance, pos, instance.getBlock(pos));
+            return;
+        }
+        // Only the block below can make this block fall
+        if (context.hasSource() && (context.offsetX() != 0 || context.offsetY() != 1 || context.offsetZ() != 0)) {
+            return;
+        }
+        blockUpdate(instance, pos, context.info());
     }
 }
@@ -11,6 +11,7 @@ import net.minestom.server.instance.block.Block;
 import net.minestom.server.tag.Tag;
 import net.minestom.server.world.DimensionType;
 import net.minestom.vanilla.blockupdatesystem.BlockUpdatable;
+import net.minestom.vanilla.blockupdatesystem.BlockUpdateContext;
 import net.minestom.vanilla.blockupdatesystem.BlockUpdateInfo;
 import net.minestom.vanilla.dimensions.VanillaDimensionTypes;
 import net.minestom.vanilla.system.nether.EntityEnterNetherPortalEvent;
@@ -317,4 +318,15 @@ public class NetherPortalBlockBehaviour extends VanillaBlockBehaviour implements
     public void blockUpdate(@NotNull Instance instance, @NotNull Point pos, @NotNull BlockUpdateInfo info) {
         breakPortalIfNoLongerValid(instance, pos);
     }
+
+    @Override
+    public void blockUpdate(@NotNull Instance instance, @NotNull Point pos, @NotNull BlockUpdateContext context) {
+        if (context.hasSource()) {
+            // Blocks outside the portal plane cannot be part of its frame
+            String axis = instance.getBlock(pos).getProperty("axis");
+            if ("x".equals(axis) && context.offsetZ() != 0) return;
+            if ("z".equals(axis) && context.offsetX() != 0) return;
+        }
+        blockUpdate(instance, pos, context.info());
+    }
 }
@@ -12,7 +12,7 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
 import java.util.Objects;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 /**
  * Oxidation (<a href="https://minecraft.fandom.com/wiki/Block_of_Copper#Waxing">Source</a>)
@@ -61,7 +61,7 @@ public class OxidatableBlockBehaviour extends WaxableBlockBehaviour implements R
         // Exit now if the block cannot be oxidised anymore
         if (oxidised == context.stateId()) return;
 
-        Random random = context.vri().random(randomTick.instance());
+        RandomGenerator random = randomTick.random();
         // In Java Edition, when a random tick is given, a copper block has a 64/1125 chance to enter a state called pre-oxidation.
         // This means a copper block enters pre-oxidation after approximately 20 minutes.
         if (random.nextInt(1125) >= 64) {
@@ -43,6 +43,7 @@ subprojects {
     }
 
     dependencies {
+        "testImplementation"("org.junit.jupiter:junit-jupiter:${rootProject.property("junit_version")}")
     }
 
     publishing {
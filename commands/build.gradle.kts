@@ -1,4 +1,5 @@
 dependencies {
     compileOnly(project(":core"))
     compileOnly(project(":instance-meta"))
+    compileOnly(project(":block-update-system"))
 }
\ No newline at end of file
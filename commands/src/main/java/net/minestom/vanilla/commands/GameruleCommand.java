@@ -0,0 +1,70 @@
+package net.minestom.vanilla.commands;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.minestom.server.command.CommandSender;
+import net.minestom.server.command.builder.Command;
+import net.minestom.server.command.builder.CommandContext;
+import net.minestom.server.command.builder.arguments.Argument;
+import net.minestom.server.command.builder.arguments.ArgumentType;
+import net.minestom.server.instance.Instance;
+import net.minestom.server.tag.Tag;
+import net.minestom.vanilla.instancemeta.gamerules.GameRules;
+
+/**
+ * Command that queries or changes a game rule of the sender's instance, made in the style of the vanilla /gamerule
+ * command.
+ *
+ * @see <a href="https://minecraft.fandom.com/wiki/Commands/gamerule">...</a>
+ */
+public class GameruleCommand extends Command {
+
+    private final Argument<String> rule = ArgumentType.Word("rule")
+            .from(GameRules.INTEGER_RULES.keySet().toArray(String[]::new));
+    private final Argument<Integer> value = ArgumentType.Integer("value").min(0);
+
+    public GameruleCommand() {
+        super("gamerule");
+
+        setDefaultExecutor((sender, context) -> sender.sendMessage(
+                Component.text("Usage: /gamerule <rule> [value]", NamedTextColor.RED)));
+
+        rule.setCallback((sender, exception) -> sender.sendMessage(
+                Component.text("Unknown game rule: " + exception.getInput(), NamedTextColor.RED)));
+
+        addSyntax(this::query, rule);
+        addSyntax(this::set, rule, value);
+    }
+
+    private void query(CommandSender sender, CommandContext context) {
+        Instance instance = instanceOf(sender);
+        if (instance == null) return;
+
+        String ruleName = context.get(rule);
+        Tag<Integer> tag = GameRules.INTEGER_RULES.get(ruleName);
+        sender.sendMessage("Gamerule " + ruleName + " is currently set to: " + GameRules.getInteger(instance, tag));
+    }
+
+    private void set(CommandSender sender, CommandContext context) {
+        Instance instance = instanceOf(sender);
+        if (instance == null) return;
+
+        if (sender.asPlayer().getPermissionLevel() < 2) {
+            sender.sendMessage(Component.text("You don't have permission to use this command.", NamedTextColor.RED));
+            return;
+        }
+
+        String ruleName = context.get(rule);
+        int newValue = context.get(value);
+        GameRules.setInteger(instance, GameRules.INTEGER_RULES.get(ruleName), newValue);
+        sender.sendMessage("Gamerule " + ruleName + " is now set to: " + newValue);
+    }
+
+    private static Instance instanceOf(CommandSender sender) {
+        if (!sender.isPlayer() || sender.asPlayer().getInstance() == null) {
+            sender.sendMessage(Component.text("Please run this command in-game.", NamedTextColor.RED));
+            return null;
+        }
+        return sender.asPlayer().getInstance();
+    }
+}
@@ -0,0 +1,67 @@
+package net.minestom.vanilla.commands;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.minestom.server.command.CommandSender;
+import net.minestom.server.command.builder.Command;
+import net.minestom.server.command.builder.CommandContext;
+import net.minestom.server.command.builder.arguments.Argument;
+import net.minestom.server.command.builder.arguments.ArgumentType;
+import net.minestom.server.instance.Instance;
+import net.minestom.server.utils.chunk.ChunkUtils;
+import net.minestom.vanilla.blockupdatesystem.BlockUpdateManager;
+import net.minestom.vanilla.randomticksystem.RandomTickIndex;
+
+import java.util.Arrays;
+
+/**
+ * Command that lists the chunks of the sender's instance holding the most random tickable blocks.
+ */
+public class RandomTicksCommand extends Command {
+
+    private final Argument<Integer> count = ArgumentType.Integer("count").between(1, 100);
+
+    public RandomTicksCommand() {
+        super("randomticks");
+
+        setCondition((sender, commandString) -> !sender.isPlayer() || sender.asPlayer().getPermissionLevel() >= 2);
+
+        setDefaultExecutor((sender, context) -> list(sender, 10));
+        addSyntax((sender, context) -> list(sender, context.get(count)), count);
+    }
+
+    private void list(CommandSender sender, int count) {
+        if (!sender.isPlayer() || sender.asPlayer().getInstance() == null) {
+            sender.sendMessage(Component.text("Please run this command in-game.", NamedTextColor.RED));
+            return;
+        }
+        Instance instance = sender.asPlayer().getInstance();
+        RandomTickIndex index = BlockUpdateManager.from(instance).randomTickIndex();
+        // Counts do not follow block changes, recount them first
+        index.recount(instance).thenRun(() -> list(sender, index, count));
+    }
+
+    private static void list(CommandSender sender, RandomTickIndex index, int count) {
+        // (count, chunk index) pairs, highest count first
+        long[] chunks = index.countedChunks();
+        long[][] entries = new long[chunks.length][];
+        int size = 0;
+        for (long chunk : chunks) {
+            int chunkCount = index.chunkCount(chunk);
+            if (chunkCount <= 0) continue;
+            entries[size++] = new long[]{chunkCount, chunk};
+        }
+        Arrays.sort(entries, 0, size, (a, b) -> Long.compare(b[0], a[0]));
+
+        if (size == 0) {
+            sender.sendMessage("No random tickable blocks in loaded chunks");
+            return;
+        }
+        sender.sendMessage("Chunks with the most random tickable blocks:");
+        for (int i = 0; i < Math.min(count, size); i++) {
+            long chunk = entries[i][1];
+            sender.sendMessage(" - " + ChunkUtils.getChunkCoordX(chunk) + ", " + ChunkUtils.getChunkCoordZ(chunk) +
+                    ": " + entries[i][0]);
+        }
+    }
+}
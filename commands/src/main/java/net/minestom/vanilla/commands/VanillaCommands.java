@@ -18,6 +18,8 @@ public enum VanillaCommands {
     STOP(StopCommand::new),
     HELP(HelpCommand::new),
     SAVE_ALL(SaveAllCommand::new),
+    GAMERULE(GameruleCommand::new),
+    RANDOMTICKS(RandomTicksCommand::new),
     ;
 
     private final Supplier<Command> commandCreator;
@@ -17,6 +17,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -126,6 +127,69 @@ public interface VanillaReimplementation {
      */
     @NotNull Random random(@NotNull Object key);
 
+    /**
+     * Gets the seed that all instance seeds are derived from.
+     * <p>
+     * This is read from the {@code vri.random.seed} system property, or picked at random on startup. Setting the
+     * property makes random ticks and other per-tick randomness reproducible, tick for tick, between runs.
+     * </p>
+     *
+     * @return the seed
+     */
+    long seed();
+
+    /**
+     * Sets the key that the seed of an instance is derived from.
+     * <p>
+     * Instances created through {@link #createInstance(NamespaceID, DimensionType)} are keyed by their namespace.
+     * Other instances must be given a key that is the same between runs, such as their world name, before their
+     * randomness is first used, otherwise they are seeded from their unique id and are not reproducible.
+     * </p>
+     *
+     * @param instance the instance
+     * @param key      the key, unique among the instances of the server
+     */
+    void seedInstance(@NotNull Instance instance, @NotNull String key);
+
+    /**
+     * Gets the seed of an instance, derived from {@link #seed()} and the instance's key.
+     *
+     * @param instance the instance
+     * @return the seed
+     * @see #seedInstance(Instance, String)
+     */
+    long instanceSeed(@NotNull Instance instance);
+
+    /**
+     * Gets the seed of a deterministic random stream keyed by an instance, a chunk, a tick and a subsystem.
+     * <p>
+     * Unlike {@link #random(Object)}, nothing is shared between callers: two different keys give independent
+     * streams, and the same key always gives the same stream. The instance's part of the key is its
+     * {@link #instanceSeed(Instance) seed}.
+     * </p>
+     *
+     * @param instance   the instance
+     * @param chunkIndex the chunk index
+     * @param tick       the tick, usually the instance's world age
+     * @param subsystem  the name of the subsystem, e.g. {@code "vri:randomtick"}
+     * @return the seed
+     */
+    long randomSeed(@NotNull Instance instance, long chunkIndex, long tick, @NotNull String subsystem);
+
+    /**
+     * Creates a deterministic random keyed by an instance, a chunk, a tick and a subsystem.
+     * <p>
+     * The returned random is not thread-safe, it must be confined to the thread that created it. It can be split to
+     * hand independent streams to other threads.
+     * </p>
+     *
+     * @see #randomSeed(Instance, long, long, String)
+     */
+    default @NotNull SplittableRandom random(@NotNull Instance instance, long chunkIndex, long tick,
+                                             @NotNull String subsystem) {
+        return new SplittableRandom(randomSeed(instance, chunkIndex, tick, subsystem));
+    }
+
     /**
      * A feature is a collection of logic that can be hooked into a server process.
      */
@@ -154,6 +218,15 @@ public interface VanillaReimplementation {
          */
         void hook(@NotNull HookContext context);
 
+        /**
+         * Called once every enabled feature has been hooked, for example to freeze registries that other features
+         * register into while hooking.
+         *
+         * @param vri the vanilla reimplementation object
+         */
+        default void afterHook(@NotNull VanillaReimplementation vri) {
+        }
+
         interface HookContext {
             @NotNull VanillaReimplementation vri();
             @NotNull VanillaRegistry registry();
@@ -5,6 +5,7 @@ import net.minestom.server.coordinate.Point;
 import net.minestom.server.coordinate.Pos;
 import net.minestom.server.entity.Entity;
 import net.minestom.server.entity.EntityType;
+import net.minestom.server.event.instance.InstanceUnregisterEvent;
 import net.minestom.server.instance.AnvilLoader;
 import net.minestom.server.instance.Instance;
 import net.minestom.server.instance.InstanceContainer;
@@ -22,6 +23,7 @@ import net.minestom.vanilla.logging.Logger;
 import net.minestom.vanilla.logging.StatusUpdater;
 import net.minestom.vanilla.utils.DependencySorting;
 import net.minestom.vanilla.utils.MinestomResources;
+import net.minestom.vanilla.utils.SeedUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.UnknownNullability;
@@ -41,6 +43,9 @@ class VanillaReimplementationImpl implements VanillaReimplementation {
     private final Map<String, VanillaRecipe> id2Recipe = new ConcurrentHashMap<>();
     private final Map<Class<Feature>, Feature> class2Feature = new ConcurrentHashMap<>();
     private final Map<Object, Random> randoms = Collections.synchronizedMap(new WeakHashMap<>());
+    // Seeds by instance, read every tick, removed when the instance is unregistered
+    private final Map<Instance, Long> instance2Seed = new ConcurrentHashMap<>();
+    private final long seed = Long.getLong("vri.random.seed", new SplittableRandom().nextLong());
 
     private VanillaReimplementationImpl(@NotNull ServerProcess process) {
         this.process = process;
@@ -171,6 +176,7 @@ class VanillaReimplementationImpl implements VanillaReimplementation {
      */
     public @NotNull Instance createInstance(@NotNull NamespaceID name, @NotNull DimensionType dimension) {
         InstanceContainer instance = process().instance().createInstanceContainer(dimension);
+        seedInstance(instance, name.asString());
         worlds.put(name, instance);
 
         // Anvil directory
@@ -194,6 +200,33 @@ class VanillaReimplementationImpl implements VanillaReimplementation {
         return randoms.computeIfAbsent(key, k -> new Random(key.hashCode()));
     }
 
+    @Override
+    public long seed() {
+        return seed;
+    }
+
+    @Override
+    public void seedInstance(@NotNull Instance instance, @NotNull String key) {
+        instance2Seed.put(instance, SeedUtils.derive(seed, key));
+    }
+
+    @Override
+    public long instanceSeed(@NotNull Instance instance) {
+        Long instanceSeed = instance2Seed.get(instance);
+        if (instanceSeed != null) return instanceSeed;
+        return instance2Seed.computeIfAbsent(instance, key -> {
+            Logger.warn("Instance %s has no seed key, its randomness is seeded from its unique id and will not be "
+                    + "reproducible between runs. Call VanillaReimplementation#seedInstance to fix this.%n",
+                    instance.getUniqueId());
+            return SeedUtils.derive(seed, instance.getUniqueId().toString());
+        });
+    }
+
+    @Override
+    public long randomSeed(@NotNull Instance instance, long chunkIndex, long tick, @NotNull String subsystem) {
+        return SeedUtils.derive(instanceSeed(instance), chunkIndex, tick, subsystem);
+    }
+
     final class VanillaRegistryImpl implements VanillaRegistry {
         @Override
         public void register(@NotNull EntityType type, @NotNull EntitySpawner supplier) {
@@ -240,6 +273,7 @@ class VanillaReimplementationImpl implements VanillaReimplementation {
         List<Feature> sortedByDependencies = DependencySorting.sort(features);
         Loading.finish();
 
+        List<Feature> hooked = new ArrayList<>();
         for (Feature feature : sortedByDependencies) {
             if (!predicate.test(feature)) {
                 Logger.info("Skipping feature %s...%n", feature.namespaceId());
@@ -250,11 +284,22 @@ class VanillaReimplementationImpl implements VanillaReimplementation {
                 instructHook(feature, registry);
                 //noinspection unchecked
                 class2Feature.put((Class<Feature>) feature.getClass(), feature);
+                hooked.add(feature);
             } catch (Exception e) {
                 Logger.error("Failed to load feature: " + feature.namespaceId(), e);
                 throw new RuntimeException(e);
             }
         }
+
+        // Every feature has registered its content
+        for (Feature feature : hooked) {
+            try {
+                feature.afterHook(this);
+            } catch (Exception e) {
+                Logger.error("Failed to complete feature: " + feature.namespaceId(), e);
+                throw new RuntimeException(e);
+            }
+        }
     }
 
     private void instructHook(Feature feature, VanillaRegistry registry) {
@@ -277,5 +322,8 @@ class VanillaReimplementationImpl implements VanillaReimplementation {
 
     private void hookCoreLibrary() {
         VanillaDimensionTypes.registerAll(process().dimension());
+        process().eventHandler().addListener(InstanceUnregisterEvent.class, event ->
+                instance2Seed.remove(event.getInstance())
+        );
     }
 }
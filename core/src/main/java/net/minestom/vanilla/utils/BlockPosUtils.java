@@ -0,0 +1,52 @@
+package net.minestom.vanilla.utils;
+
+import net.minestom.server.coordinate.Point;
+import net.minestom.server.coordinate.Vec;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Packs block coordinates into a single long, using the same layout as vanilla's BlockPos#asLong.
+ * <p>
+ * 26 bits are used for x and z, and 12 bits for y.
+ * </p>
+ */
+public class BlockPosUtils {
+
+    private static final int XZ_BITS = 26;
+    private static final int Y_BITS = 12;
+    private static final long XZ_MASK = (1L << XZ_BITS) - 1L;
+    private static final long Y_MASK = (1L << Y_BITS) - 1L;
+    private static final int X_SHIFT = Y_BITS + XZ_BITS;
+    private static final int Z_SHIFT = Y_BITS;
+
+    private BlockPosUtils() {
+    }
+
+    public static long asLong(int x, int y, int z) {
+        return ((x & XZ_MASK) << X_SHIFT) | ((z & XZ_MASK) << Z_SHIFT) | (y & Y_MASK);
+    }
+
+    public static long asLong(@NotNull Point point) {
+        return asLong(point.blockX(), point.blockY(), point.blockZ());
+    }
+
+    public static int getX(long packed) {
+        return (int) (packed >> X_SHIFT);
+    }
+
+    public static int getY(long packed) {
+        return (int) (packed << (64 - Y_BITS) >> (64 - Y_BITS));
+    }
+
+    public static int getZ(long packed) {
+        return (int) (packed << (64 - X_SHIFT) >> (64 - XZ_BITS));
+    }
+
+    public static long offset(long packed, int offsetX, int offsetY, int offsetZ) {
+        return asLong(getX(packed) + offsetX, getY(packed) + offsetY, getZ(packed) + offsetZ);
+    }
+
+    public static @NotNull Vec toVec(long packed) {
+        return new Vec(getX(packed), getY(packed), getZ(packed));
+    }
+}
@@ -0,0 +1,92 @@
+package net.minestom.vanilla.utils;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import net.minestom.server.instance.palette.Palette;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Field;
+import java.util.function.IntPredicate;
+
+/**
+ * Reads the values held by the palette of a section, which the {@link Palette} api does not expose.
+ * <p>
+ * Indirect palettes keep a list of the values they map their entries to, so checking that list answers whether a
+ * section can contain a value without reading its 4096 entries. The list is read through reflection into the palette
+ * implementation of the pinned Minestom version, and this class fails to initialize if that implementation changes.
+ * </p>
+ */
+public class PaletteUtils {
+
+    // Above this, block palettes store global ids directly and have no value list
+    private static final int MAX_INDIRECT_BITS = 8;
+
+    private static final Class<?> ADAPTIVE_PALETTE;
+    private static final Field ADAPTIVE_PALETTE_DELEGATE;
+    private static final Class<?> FLEXIBLE_PALETTE;
+    private static final Field FLEXIBLE_PALETTE_VALUES;
+
+    static {
+        try {
+            ADAPTIVE_PALETTE = Class.forName("net.minestom.server.instance.palette.AdaptivePalette");
+            ADAPTIVE_PALETTE_DELEGATE = ADAPTIVE_PALETTE.getDeclaredField("palette");
+            ADAPTIVE_PALETTE_DELEGATE.setAccessible(true);
+            FLEXIBLE_PALETTE = Class.forName("net.minestom.server.instance.palette.FlexiblePalette");
+            FLEXIBLE_PALETTE_VALUES = FLEXIBLE_PALETTE.getDeclaredField("paletteToValueList");
+            FLEXIBLE_PALETTE_VALUES.setAccessible(true);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw unreadable(e);
+        }
+    }
+
+    private PaletteUtils() {
+    }
+
+    /**
+     * Checks whether any value held by a palette matches a predicate, without reading the palette's entries.
+     * <p>
+     * The values of an indirect palette can include values that are no longer present, so a true result only means
+     * that the palette may contain a matching value. A false result is exact.
+     * </p>
+     * <p>
+     * The palette must not be written to during the call: callers hold the lock of the palette's chunk, which
+     * {@link net.minestom.server.instance.InstanceContainer} holds while setting blocks, or read a clone.
+     * </p>
+     *
+     * @param palette   the palette
+     * @param predicate the predicate, tested with state ids for block palettes
+     * @return false if no entry of the palette can match, true if one may or if the palette is not one of Minestom's own
+     */
+    public static boolean mayContain(@NotNull Palette palette, @NotNull IntPredicate predicate) {
+        int bitsPerEntry = palette.bitsPerEntry();
+        if (bitsPerEntry == 0) {
+            // Single value palette
+            return predicate.test(palette.get(0, 0, 0));
+        }
+        if (bitsPerEntry > MAX_INDIRECT_BITS) return true;
+
+        IntArrayList values = values(palette);
+        if (values == null) return true; // Not a Minestom palette
+        for (int i = 0; i < values.size(); i++) {
+            if (predicate.test(values.getInt(i))) return true;
+        }
+        return false;
+    }
+
+    private static IntArrayList values(Palette palette) {
+        try {
+            Object delegate = palette;
+            if (ADAPTIVE_PALETTE.isInstance(delegate)) {
+                delegate = ADAPTIVE_PALETTE_DELEGATE.get(delegate);
+            }
+            if (!FLEXIBLE_PALETTE.isInstance(delegate)) return null;
+            return (IntArrayList) FLEXIBLE_PALETTE_VALUES.get(delegate);
+        } catch (IllegalAccessException | ClassCastException e) {
+            throw unreadable(e);
+        }
+    }
+
+    private static IllegalStateException unreadable(Exception cause) {
+        return new IllegalStateException("Minestom's palette implementation changed, palette values are not readable",
+                cause);
+    }
+}
@@ -0,0 +1,52 @@
+package net.minestom.vanilla.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Derives independent random seeds from a base seed and a key, using the SplitMix64 finalizer.
+ * <p>
+ * The same inputs always give the same seed, on any thread and in any run.
+ * </p>
+ */
+public class SeedUtils {
+
+    /**
+     * The SplitMix64 increment, also used to spread key components before mixing them in.
+     */
+    public static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private SeedUtils() {
+    }
+
+    /**
+     * Derives the seed of a (chunk, tick, subsystem) key from a base seed.
+     *
+     * @param seed       the base seed, usually the instance's seed
+     * @param chunkIndex the chunk index
+     * @param tick       the tick
+     * @param subsystem  the name of the subsystem using the seed
+     * @return the derived seed
+     */
+    public static long derive(long seed, long chunkIndex, long tick, @NotNull String subsystem) {
+        long result = mix64(seed + GOLDEN_GAMMA);
+        result = mix64(result ^ (chunkIndex * GOLDEN_GAMMA));
+        result = mix64(result ^ (tick * GOLDEN_GAMMA));
+        return mix64(result ^ (subsystem.hashCode() * GOLDEN_GAMMA));
+    }
+
+    /**
+     * Derives a seed from a string, stable across runs unlike most hash codes.
+     */
+    public static long derive(long seed, @NotNull String key) {
+        return mix64(mix64(seed + GOLDEN_GAMMA) ^ (key.hashCode() * GOLDEN_GAMMA));
+    }
+
+    /**
+     * The SplitMix64 finalizer, see java.util.SplittableRandom.
+     */
+    public static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
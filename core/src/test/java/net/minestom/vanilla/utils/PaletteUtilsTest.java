@@ -0,0 +1,65 @@
+package net.minestom.vanilla.utils;
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import net.minestom.server.instance.palette.Palette;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PaletteUtilsTest {
+
+    @Test
+    void readsTheValuesOfIndirectPalettes() {
+        Palette palette = Palette.blocks();
+        palette.set(0, 0, 0, 1);
+        palette.set(1, 2, 3, 5);
+        assertTrue(palette.bitsPerEntry() > 0);
+
+        assertTrue(PaletteUtils.mayContain(palette, value -> value == 5));
+        // Only answered by reading the value list of the pinned Minestom palette
+        assertFalse(PaletteUtils.mayContain(palette, value -> value == 7));
+    }
+
+    @Test
+    void readsSingleValuePalettes() {
+        Palette palette = Palette.blocks();
+        palette.fill(9);
+        assertEquals(0, palette.bitsPerEntry());
+
+        assertTrue(PaletteUtils.mayContain(palette, value -> value == 9));
+        assertFalse(PaletteUtils.mayContain(palette, value -> value == 0));
+    }
+
+    @Test
+    void neverMissesAPresentValue() {
+        Random random = new Random(3);
+        Palette palette = Palette.blocks();
+        IntSet written = new IntOpenHashSet();
+        written.add(0);
+
+        // Grows through every indirect size up to a direct palette
+        for (int i = 0; i < 4096; i++) {
+            int value = 1 + random.nextInt(Math.min(1 + i / 8, 400));
+            palette.set(random.nextInt(16), random.nextInt(16), random.nextInt(16), value);
+            written.add(value);
+
+            if (i % 64 != 0) continue;
+            IntSet present = new IntOpenHashSet();
+            palette.getAll((x, y, z, entry) -> present.add(entry));
+            for (int candidate = 0; candidate < 512; candidate++) {
+                int expected = candidate;
+                boolean mayContain = PaletteUtils.mayContain(palette, entry -> entry == expected);
+                if (present.contains(candidate)) {
+                    assertTrue(mayContain, "missed " + candidate + " at step " + i);
+                } else if (!written.contains(candidate) && palette.bitsPerEntry() <= 8) {
+                    assertFalse(mayContain, "found " + candidate + " at step " + i);
+                }
+            }
+        }
+    }
+}
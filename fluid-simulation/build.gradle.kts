@@ -1,4 +1,7 @@
 dependencies {
     compileOnly(project(":core"))
     compileOnly(project(":block-update-system"))
-}
\ No newline at end of file
+
+    testImplementation(project(":core"))
+    testImplementation(project(":block-update-system"))
+}
@@ -1,38 +1,47 @@
 package io.github.togar2.fluids;
 
-import it.unimi.dsi.fastutil.shorts.Short2BooleanMap;
-import it.unimi.dsi.fastutil.shorts.Short2BooleanOpenHashMap;
-import net.minestom.server.MinecraftServer;
 import net.minestom.server.coordinate.Point;
-import net.minestom.server.gamedata.tags.Tag;
-import net.minestom.server.gamedata.tags.TagManager;
 import net.minestom.server.instance.Instance;
 import net.minestom.server.instance.block.Block;
 import net.minestom.server.item.Material;
 import net.minestom.server.utils.Direction;
+import net.minestom.vanilla.utils.BlockPosUtils;
 
 import java.util.EnumMap;
 import java.util.Map;
 
 public abstract class FlowableFluid extends Fluid {
 
+    // Blocks by level property value
+    private final Block[] levelBlocks = new Block[16];
+
     public FlowableFluid(Block defaultBlock, Material bucket) {
         super(defaultBlock, bucket);
+        for (int level = 0; level < levelBlocks.length; level++) {
+            levelBlocks[level] = defaultBlock.withProperty("level", String.valueOf(level));
+        }
     }
 
     @Override
     public void onTick(Instance instance, Point point, Block block) {
+        boolean changed = false;
         if (!isSource(block)) {
             Block updated = getUpdatedState(instance, point, block);
             if (MinestomFluids.get(updated).isEmpty()) {
                 block = updated;
-                instance.setBlock(point, Block.AIR);
+                setBlock(instance, point, Block.AIR);
+                changed = true;
             } else if (updated != block) {
                 block = updated;
-                instance.setBlock(point, updated);
+                setBlock(instance, point, updated);
+                changed = true;
             }
         }
-        tryFlow(instance, point, block);
+        boolean flowed = tryFlow(instance, point, block);
+        if (!changed && !flowed) {
+            // At rest, only tick again once a neighbor changes
+            MinestomFluids.markDormant(instance, point);
+        }
     }
 
     @Override
@@ -40,40 +49,52 @@ public abstract class FlowableFluid extends Fluid {
         return getTickRate(instance);
     }
 
-    protected void tryFlow(Instance instance, Point point, Block block) {
+    /**
+     * Flows down if possible, and to the sides otherwise.
+     *
+     * @return true if the fluid flowed anywhere
+     */
+    protected boolean tryFlow(Instance instance, Point point, Block block) {
         Fluid fluid = MinestomFluids.get(block);
-        if (fluid.isEmpty()) return;
+        if (fluid.isEmpty()) return false;
 
         Point down = point.add(0, -1, 0);
-        Block downBlock = instance.getBlock(down);
+        Block downBlock = MinestomFluids.getBlock(instance, down);
         Block updatedDownFluid = getUpdatedState(instance, down, downBlock);
         if (canFlow(instance, point, block, Direction.DOWN, down, downBlock, updatedDownFluid)) {
             flow(instance, down, downBlock, Direction.DOWN, updatedDownFluid);
             if (getAdjacentSourceCount(instance, point) >= 3) {
                 flowSides(instance, point, block);
             }
-        } else if (isSource(block) || !canFlowDown(instance, updatedDownFluid, point, block, down, downBlock)) {
-            flowSides(instance, point, block);
+            return true;
+        } else if (isSource(block) || !canFlowDown(updatedDownFluid, block, downBlock)) {
+            return flowSides(instance, point, block);
         }
+        return false;
     }
 
     /**
      * Flows to the sides whenever possible, or to a hole if found
+     *
+     * @return true if the fluid flowed to any side
      */
-    private void flowSides(Instance instance, Point point, Block block) {
+    private boolean flowSides(Instance instance, Point point, Block block) {
         int newLevel = getLevel(block) - getLevelDecreasePerBlock(instance);
         if (isFalling(block)) newLevel = 7;
-        if (newLevel <= 0) return;
+        if (newLevel <= 0) return false;
 
+        boolean flowed = false;
         Map<Direction, Block> map = getSpread(instance, point, block);
         for (Map.Entry<Direction, Block> entry : map.entrySet()) {
             Direction direction = entry.getKey();
             Block newBlock = entry.getValue();
             Point offset = point.add(direction.normalX(), direction.normalY(), direction.normalZ());
-            Block currentBlock = instance.getBlock(offset);
+            Block currentBlock = MinestomFluids.getBlock(instance, offset);
             if (!canFlow(instance, point, block, direction, offset, currentBlock, newBlock)) continue;
             flow(instance, offset, currentBlock, direction, newBlock);
+            flowed = true;
         }
+        return flowed;
     }
 
     /**
@@ -82,12 +103,14 @@ public abstract class FlowableFluid extends Fluid {
     protected Block getUpdatedState(Instance instance, Point point, Block block) {
         int highestLevel = 0;
         int stillCount = 0;
+        int x = point.blockX();
+        int y = point.blockY();
+        int z = point.blockZ();
         for (Direction direction : Direction.HORIZONTAL) {
-            Point directionPos = point.add(direction.normalX(), direction.normalY(), direction.normalZ());
-            Block directionBlock = instance.getBlock(directionPos);
+            Block directionBlock = MinestomFluids.getBlock(instance,
+                    x + direction.normalX(), y, z + direction.normalZ());
             Fluid directionFluid = MinestomFluids.get(directionBlock);
-            if (directionFluid != this || !receivesFlow(direction, instance, point, block, directionPos, directionBlock))
-                continue;
+            if (directionFluid != this || !receivesFlow(direction, block, directionBlock)) continue;
 
             if (isSource(directionBlock)) {
                 ++stillCount;
@@ -98,17 +121,15 @@ public abstract class FlowableFluid extends Fluid {
         if (isInfinite() && stillCount >= 2) {
             // If there's 2 or more still fluid blocks around
             // and below is still or a solid block, make this block still
-            Block downBlock = instance.getBlock(point.add(0, -1, 0));
-            if (downBlock.isSolid() || isMatchingAndStill(downBlock)) {
+            Block downBlock = MinestomFluids.getBlock(instance, x, y - 1, z);
+            if (FluidStates.isSolid(downBlock.stateId()) || isMatchingAndStill(downBlock)) {
                 return getSource(false);
             }
         }
 
-        Point above = point.add(0, 1, 0);
-        Block aboveBlock = instance.getBlock(above);
+        Block aboveBlock = MinestomFluids.getBlock(instance, x, y + 1, z);
         Fluid aboveFluid = MinestomFluids.get(aboveBlock);
-        if (!aboveFluid.isEmpty() && aboveFluid == this
-                && receivesFlow(Direction.UP, instance, point, block, above, aboveBlock)) {
+        if (!aboveFluid.isEmpty() && aboveFluid == this && receivesFlow(Direction.UP, block, aboveBlock)) {
             return getFlowing(8, true);
         }
 
@@ -117,8 +138,7 @@ public abstract class FlowableFluid extends Fluid {
         return getFlowing(newLevel, false);
     }
 
-    private boolean receivesFlow(Direction face, Instance instance, Point point,
-                                 Block block, Point fromPoint, Block fromBlock) {
+    private boolean receivesFlow(Direction face, Block block, Block fromBlock) {
         // Vanilla seems to check if the adjacent block shapes cover the same square, but this seems to work as well
         // (Might not work with some special blocks)
         // If there is anything wrong it is most likely this method :D
@@ -126,64 +146,51 @@ public abstract class FlowableFluid extends Fluid {
         if (block.isLiquid()) {
             if (face == Direction.UP) {
                 if (fromBlock.isLiquid()) return true;
-                return block.isSolid() || block.isAir();
+                return FluidStates.isSolid(block.stateId()) || block.isAir();
                 //return isSource(block) || getLevel(block) == 8;
             } else if (face == Direction.DOWN) {
                 if (fromBlock.isLiquid()) return true;
-                return fromBlock.isSolid() || fromBlock.isAir();
+                return FluidStates.isSolid(fromBlock.stateId()) || fromBlock.isAir();
                 //return isSource(fromBlock) || getLevel(fromBlock) == 8;
             } else {
                 return true;
             }
         } else {
             if (face == Direction.UP) {
-                return block.isSolid() || block.isAir();
+                return FluidStates.isSolid(block.stateId()) || block.isAir();
             } else if (face == Direction.DOWN) {
-                return block.isSolid() || block.isAir();
+                return FluidStates.isSolid(block.stateId()) || block.isAir();
             } else {
-                return block.isSolid() || block.isAir();
+                return FluidStates.isSolid(block.stateId()) || block.isAir();
             }
         }
     }
 
-    /**
-     * Creates a unique id based on the relation between point and point2
-     */
-    private static short getID(Point point, Point point2) {
-        int i = (int) (point2.x() - point.x());
-        int j = (int) (point2.z() - point.z());
-        return (short) ((i + 128 & 0xFF) << 8 | j + 128 & 0xFF);
-    }
-
     /**
      * Returns a map with the directions the water can flow in and the block the water will become in that direction.
      * If a hole is found within {@code getHoleRadius()} blocks, the water will only flow in that direction.
      * A weight is used to determine which hole is the closest.
+     * <p>
+     * The returned map is reused, it is only valid until the next call.
+     * </p>
      */
     protected Map<Direction, Block> getSpread(Instance instance, Point point, Block block) {
+        FluidSearchCache cache = MinestomFluids.searchCache(instance);
+        FluidSearchCache.Tables tables = cache.tables(this);
         int weight = 1000;
-        EnumMap<Direction, Block> map = new EnumMap<>(Direction.class);
-        Short2BooleanOpenHashMap holeMap = new Short2BooleanOpenHashMap();
+        EnumMap<Direction, Block> map = cache.spread;
+        map.clear();
 
         for (Direction direction : Direction.HORIZONTAL) {
             Point directionPoint = point.add(direction.normalX(), direction.normalY(), direction.normalZ());
-            Block directionBlock = instance.getBlock(directionPoint);
-            short id = FlowableFluid.getID(point, directionPoint);
+            Block directionBlock = MinestomFluids.getBlock(instance, directionPoint);
 
             Block updatedBlock = getUpdatedState(instance, directionPoint, directionBlock);
-            if (!canFlowThrough(instance, updatedBlock, point, block, direction, directionPoint, directionBlock))
-                continue;
-
-            boolean down = holeMap.computeIfAbsent(id, s -> {
-                Point downPoint = directionPoint.add(0, -1, 0);
-                return canFlowDown(
-                        instance, getFlowing(getLevel(updatedBlock), false),
-                        directionPoint, directionBlock, downPoint, instance.getBlock(downPoint)
-                );
-            });
-
-            int newWeight = down ? 0 : getWeight(instance, directionPoint, 1,
-                    direction.opposite(), directionBlock, point, holeMap);
+            if (!canFlowThrough(updatedBlock, block, direction, directionBlock)) continue;
+
+            int newWeight = isHole(instance, tables, directionPoint.blockX(), directionPoint.blockY(),
+                    directionPoint.blockZ(), directionBlock) ? 0
+                    : getWeight(instance, tables, directionPoint, 1, direction.opposite(), directionBlock);
             if (newWeight < weight) map.clear();
 
             if (newWeight <= weight) {
@@ -194,42 +201,72 @@ public abstract class FlowableFluid extends Fluid {
         return map;
     }
 
-    protected int getWeight(Instance instance, Point point, int initialWeight, Direction skipCheck,
-                            Block block, Point originalPoint, Short2BooleanMap short2BooleanMap) {
-        int weight = 1000;
+    protected int getWeight(Instance instance, FluidSearchCache.Tables tables, Point point, int initialWeight,
+                            Direction skipCheck, Block block) {
+        int distance = getHoleDistance(instance, tables, point.blockX(), point.blockY(), point.blockZ(), skipCheck,
+                block, getHoleRadius(instance) - initialWeight);
+        return distance == FluidSearchCache.NONE ? 1000 : initialWeight + distance;
+    }
+
+    /**
+     * Gets the distance from a point to the nearest hole, without going back in the direction the search came from.
+     *
+     * @return the distance, or {@link FluidSearchCache#NONE} if there is no hole within {@code budget} blocks
+     */
+    private int getHoleDistance(Instance instance, FluidSearchCache.Tables tables, int x, int y, int z,
+                                Direction skipCheck, Block block, int budget) {
+        long position = BlockPosUtils.asLong(x, y, z);
+        int cached = tables.distance(position, skipCheck, budget);
+        if (cached != FluidSearchCache.UNKNOWN) return cached;
+
+        int distance = FluidSearchCache.NONE;
+        Block flowing = getFlowing(getLevel(block), false);
         for (Direction direction : Direction.HORIZONTAL) {
             if (direction == skipCheck) continue;
-            Point directionPoint = point.add(direction.normalX(), direction.normalY(), direction.normalZ());
-            Block directionBlock = instance.getBlock(directionPoint);
-            short id = FlowableFluid.getID(originalPoint, directionPoint);
-
-            if (!canFlowThrough(instance, getFlowing(getLevel(block), false), point, block,
-                    direction, directionPoint, directionBlock)) continue;
-
-            boolean down = short2BooleanMap.computeIfAbsent(id, s -> {
-                Point downPoint = directionPoint.add(0, -1, 0);
-                Block downBlock = instance.getBlock(downPoint);
-                return canFlowDown(
-                        instance, getFlowing(getLevel(block), false),
-                        directionPoint, downBlock, downPoint, downBlock
-                );
-            });
-            if (down) return initialWeight;
-
-            if (initialWeight < getHoleRadius(instance)) {
-                int newWeight = getWeight(instance, directionPoint, initialWeight + 1,
-                        direction.opposite(), directionBlock, originalPoint, short2BooleanMap);
-                if (newWeight < weight) weight = newWeight;
+            int directionX = x + direction.normalX();
+            int directionZ = z + direction.normalZ();
+            Block directionBlock = MinestomFluids.getBlock(instance, directionX, y, directionZ);
+
+            if (!canFlowThrough(flowing, block, direction, directionBlock)) continue;
+
+            if (isHole(instance, tables, directionX, y, directionZ, directionBlock)) {
+                distance = 0;
+                break;
+            }
+
+            if (budget > 0) {
+                int newDistance = getHoleDistance(instance, tables, directionX, y, directionZ, direction.opposite(),
+                        directionBlock, budget - 1);
+                if (newDistance != FluidSearchCache.NONE
+                        && (distance == FluidSearchCache.NONE || newDistance + 1 < distance)) {
+                    distance = newDistance + 1;
+                }
             }
         }
-        return weight;
+
+        tables.distance(position, skipCheck, budget, distance);
+        return distance;
+    }
+
+    /**
+     * Returns whether the fluid can flow down from the given point
+     */
+    private boolean isHole(Instance instance, FluidSearchCache.Tables tables, int x, int y, int z, Block block) {
+        long position = BlockPosUtils.asLong(x, y, z);
+        int cached = tables.hole(position);
+        if (cached != FluidSearchCache.UNKNOWN) return cached == 1;
+
+        boolean hole = canFlowDown(getFlowing(getLevel(block), false), block,
+                MinestomFluids.getBlock(instance, x, y - 1, z));
+        tables.hole(position, hole);
+        return hole;
     }
 
     private int getAdjacentSourceCount(Instance instance, Point point) {
         int i = 0;
         for (Direction direction : Direction.HORIZONTAL) {
-            Point currentPoint = point.add(direction.normalX(), direction.normalY(), direction.normalZ());
-            Block block = instance.getBlock(currentPoint);
+            Block block = MinestomFluids.getBlock(instance,
+                    point.blockX() + direction.normalX(), point.blockY(), point.blockZ() + direction.normalZ());
             if (!isMatchingAndStill(block)) continue;
             ++i;
         }
@@ -239,61 +276,60 @@ public abstract class FlowableFluid extends Fluid {
     /**
      * Returns whether the fluid can flow through a specific block
      */
-    private boolean canFill(Instance instance, Point point, Block block, Block flowing) {
-        //TODO check waterloggable
-        TagManager tags = MinecraftServer.getTagManager();
-        if (block.compare(Block.LADDER)
-                || block.compare(Block.SUGAR_CANE)
-                || block.compare(Block.BUBBLE_COLUMN)
-                || block.compare(Block.NETHER_PORTAL)
-                || block.compare(Block.END_PORTAL)
-                || block.compare(Block.END_GATEWAY)
-                || block.compare(Block.KELP)
-                || block.compare(Block.KELP_PLANT)
-                || block.compare(Block.SEAGRASS)
-                || block.compare(Block.TALL_SEAGRASS)
-                || block.compare(Block.SEA_PICKLE)
-                || tags.getTag(Tag.BasicType.BLOCKS, "minecraft:signs").contains(block.namespace())
-                || block.name().contains("door")
-                || block.name().contains("coral")) {
-            return false;
+    private boolean canFill(Block block, Block flowing) {
+        int stateId = block.stateId();
+        if (FluidStates.isWaterloggable(stateId)) {
+            // Like vanilla, only still water can waterlog a block
+            return this == MinestomFluids.WATER && isSource(flowing) && MinestomFluids.get(block) != this;
         }
-        return !block.isSolid();
+        return FluidStates.isReplaceable(stateId);
     }
 
-    private boolean canFlowDown(Instance instance, Block flowing, Point point,
-                                Block block, Point fromPoint, Block fromBlock) {
-        if (!this.receivesFlow(Direction.DOWN, instance, point, block, fromPoint, fromBlock)) return false;
+    private boolean canFlowDown(Block flowing, Block block, Block fromBlock) {
+        if (!this.receivesFlow(Direction.DOWN, block, fromBlock)) return false;
         if (MinestomFluids.get(fromBlock) == this) return true;
-        return this.canFill(instance, fromPoint, fromBlock, flowing);
+        return this.canFill(fromBlock, flowing);
     }
 
-    private boolean canFlowThrough(Instance instance, Block flowing, Point point, Block block,
-                                   Direction face, Point fromPoint, Block fromBlock) {
+    private boolean canFlowThrough(Block flowing, Block block, Direction face, Block fromBlock) {
         return !isMatchingAndStill(fromBlock)
-                && receivesFlow(face, instance, point, block, fromPoint, fromBlock)
-                && canFill(instance, fromPoint, fromBlock, flowing);
+                && receivesFlow(face, block, fromBlock)
+                && canFill(fromBlock, flowing);
     }
 
     protected boolean canFlow(Instance instance, Point fluidPoint, Block flowingBlock,
                               Direction flowDirection, Point flowTo, Block flowToBlock, Block newFlowing) {
         return MinestomFluids.get(flowToBlock).canBeReplacedWith(instance, flowTo, MinestomFluids.get(newFlowing), flowDirection)
-                && receivesFlow(flowDirection, instance, fluidPoint, flowingBlock, flowTo, flowToBlock)
-                && canFill(instance, flowTo, flowToBlock, newFlowing);
+                && receivesFlow(flowDirection, flowingBlock, flowToBlock)
+                && canFill(flowToBlock, newFlowing);
     }
 
     /**
      * Sets the position to the new block, executing {@code onBreakingBlock()} before breaking any non-air block.
      */
     protected void flow(Instance instance, Point point, Block block, Direction direction, Block newBlock) {
-        //TODO waterloggable check
+        if (FluidStates.isWaterloggable(block.stateId())) {
+            // Waterlog the block instead of breaking it, read again as the given block may be an updated state
+            setBlock(instance, point, MinestomFluids.getBlock(instance, point).withProperty("waterlogged", "true"));
+            return;
+        }
+
         boolean cancel = false;
         if (!block.isAir()) {
             if (!onBreakingBlock(instance, point, block))
                 cancel = true;
         }
 
-        if (!cancel) instance.setBlock(point, newBlock);
+        if (!cancel) setBlock(instance, point, newBlock);
+    }
+
+    /**
+     * Sets a block changed by this fluid, invalidating the cached hole searches that depend on it.
+     */
+    protected void setBlock(Instance instance, Point point, Block block) {
+        MinestomFluids.setBlock(instance, point, block);
+        MinestomFluids.searchCache(instance).invalidate(BlockPosUtils.asLong(point),
+                MinestomFluids.maxHoleRadius(instance) + 1);
     }
 
     private boolean isMatchingAndStill(Block block) {
@@ -301,11 +337,11 @@ public abstract class FlowableFluid extends Fluid {
     }
 
     public Block getFlowing(int level, boolean falling) {
-        return defaultBlock.withProperty("level", String.valueOf(falling ? 8 : level));
+        return levelBlocks[falling ? 8 : level];
     }
 
     public Block getSource(boolean falling) {
-        return falling ? defaultBlock.withProperty("level", "8") : defaultBlock;
+        return falling ? levelBlocks[8] : defaultBlock;
     }
 
     protected abstract boolean isInfinite();
@@ -322,7 +358,8 @@ public abstract class FlowableFluid extends Fluid {
     public abstract int getTickRate(Instance instance);
 
     private static boolean isFluidAboveEqual(Block block, Instance instance, Point point) {
-        return MinestomFluids.get(block) == MinestomFluids.get(instance.getBlock(point.add(0, 1, 0)));
+        return MinestomFluids.get(block) == MinestomFluids.get(
+                MinestomFluids.getBlock(instance, point.blockX(), point.blockY() + 1, point.blockZ()));
     }
 
     @Override
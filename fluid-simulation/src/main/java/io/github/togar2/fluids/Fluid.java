@@ -32,6 +32,14 @@ public abstract class Fluid {
     public void onTick(Instance instance, Point point, Block block) {
     }
 
+    /**
+     * Returns the block this fluid turns into because of its neighbors, such as lava touching water,
+     * or null if it does not change
+     */
+    public Block getMixedBlock(Instance instance, Point point, Block block) {
+        return null;
+    }
+
     protected boolean isEmpty() {
         return false;
     }
@@ -43,21 +51,14 @@ public abstract class Fluid {
     public abstract double getHeight(Block block);
 
     public static boolean isSource(Block block) {
-        String levelStr = block.getProperty("level");
-        return levelStr == null || Integer.parseInt(levelStr) == 0;
+        return FluidStates.isSource(block.stateId());
     }
 
     public static int getLevel(Block block) {
-        String levelStr = block.getProperty("level");
-        if (levelStr == null) return 8;
-        int level = Integer.parseInt(levelStr);
-        if (level == 0) return 8; // Source block
-        return level;
+        return FluidStates.level(block.stateId());
     }
 
     public static boolean isFalling(Block block) {
-        String levelStr = block.getProperty("level");
-        if (levelStr == null) return false;
-        return Integer.parseInt(levelStr) >= 8;
+        return FluidStates.isFalling(block.stateId());
     }
 }
@@ -0,0 +1,91 @@
+package io.github.togar2.fluids;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minestom.server.instance.Chunk;
+import net.minestom.server.instance.Instance;
+import net.minestom.server.instance.block.Block;
+import net.minestom.server.instance.palette.Palette;
+import net.minestom.vanilla.utils.BlockPosUtils;
+
+/**
+ * Reads the blocks of an instance straight from the block palettes of its sections, during the fluid ticks of one
+ * tick.
+ * <p>
+ * The palettes of every section read during the tick are kept, so the neighborhood around a fluid is resolved once
+ * instead of looking up the chunk on every read, and consecutive reads in the same section skip even the lookup.
+ * Palettes are read live, so writes made during the tick are seen straight away. Blocks with a handler or nbt are
+ * resolved through their chunk, so every read returns the same block as {@link Instance#getBlock}. The cursor is only
+ * used by the thread that opened it.
+ * </p>
+ */
+class FluidBlockCursor {
+
+    private static final long NO_SECTION = Long.MIN_VALUE;
+
+    // Packed section position -> section, null for sections outside of loaded chunks
+    private final Long2ObjectOpenHashMap<Section> sections = new Long2ObjectOpenHashMap<>();
+    // The thread running the fluid tick while the cursor is open
+    private volatile Thread owner = null;
+
+    private long lastSection = NO_SECTION;
+    private Section lastSectionView = null;
+
+    /**
+     * Opens the cursor on the calling thread for a fluid tick.
+     */
+    void open() {
+        owner = Thread.currentThread();
+    }
+
+    /**
+     * @return true if the cursor is open on the calling thread
+     */
+    boolean isOpen() {
+        return owner == Thread.currentThread();
+    }
+
+    /**
+     * Closes the cursor and forgets the cached palettes, chunks may be loaded or unloaded before the next tick.
+     */
+    void close() {
+        owner = null;
+        sections.clear();
+        lastSection = NO_SECTION;
+        lastSectionView = null;
+    }
+
+    Block getBlock(Instance instance, int x, int y, int z) {
+        Section section = section(instance, x, y, z);
+        if (section == null) return instance.getBlock(x, y, z);
+
+        // Only blocks with a handler or nbt are cached by the chunk, the others are fully described by their state
+        Block cached = section.chunk.getBlock(x, y, z, Block.Getter.Condition.CACHED);
+        if (cached != null) return cached;
+        Block block = Block.fromStateId((short) section.palette.get(x & 15, y & 15, z & 15));
+        return block != null ? block : instance.getBlock(x, y, z);
+    }
+
+    private Section section(Instance instance, int x, int y, int z) {
+        long sectionIndex = BlockPosUtils.asLong(x >> 4, y >> 4, z >> 4);
+        if (sectionIndex == lastSection) return lastSectionView;
+
+        Section section;
+        if (sections.containsKey(sectionIndex)) {
+            section = sections.get(sectionIndex);
+        } else {
+            section = loadSection(instance, x >> 4, y >> 4, z >> 4);
+            sections.put(sectionIndex, section);
+        }
+        lastSection = sectionIndex;
+        lastSectionView = section;
+        return section;
+    }
+
+    private static Section loadSection(Instance instance, int chunkX, int sectionY, int chunkZ) {
+        Chunk chunk = instance.getChunk(chunkX, chunkZ);
+        if (chunk == null || sectionY < chunk.getMinSection() || sectionY >= chunk.getMaxSection()) return null;
+        return new Section(chunk, chunk.getSection(sectionY).blockPalette());
+    }
+
+    private record Section(Chunk chunk, Palette palette) {}
+}
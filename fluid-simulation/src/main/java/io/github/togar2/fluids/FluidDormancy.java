@@ -0,0 +1,88 @@
+package io.github.togar2.fluids;
+
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minestom.server.utils.chunk.ChunkUtils;
+import net.minestom.vanilla.utils.BlockPosUtils;
+
+/**
+ * Tracks the fluid positions of an instance that are at rest: their last tick neither changed them nor made them
+ * flow anywhere.
+ * <p>
+ * A dormant position remembers a signature of itself and its six neighbors. Requests to tick it again are dropped
+ * while that signature is unchanged, such as when a neighbor is rewritten with the same block, and wake it up
+ * otherwise. A position is also woken up when its block is written or stops being a fluid. Positions are grouped by
+ * chunk so they can be forgotten when their chunk unloads. This class is thread-safe.
+ * </p>
+ */
+class FluidDormancy {
+
+    // Chunk index -> packed position -> neighborhood signature
+    private final Long2ObjectMap<Long2LongOpenHashMap> chunk2Dormant = new Long2ObjectOpenHashMap<>();
+    private int dormantCount = 0;
+    private long suppressedTicks = 0;
+
+    synchronized void markDormant(long position, long signature) {
+        Long2LongOpenHashMap dormant = chunk2Dormant.computeIfAbsent(chunkOf(position),
+                chunk -> new Long2LongOpenHashMap());
+        if (!dormant.containsKey(position)) dormantCount++;
+        dormant.put(position, signature);
+    }
+
+    synchronized boolean isDormant(long position) {
+        Long2LongOpenHashMap dormant = chunk2Dormant.get(chunkOf(position));
+        return dormant != null && dormant.containsKey(position);
+    }
+
+    /**
+     * Checks whether a tick requested at the given position should be dropped, waking the position up otherwise.
+     *
+     * @param position  the packed position
+     * @param signature the current signature of its neighborhood
+     * @return true if the position is dormant and its neighborhood did not change
+     */
+    synchronized boolean suppressTick(long position, long signature) {
+        Long2LongOpenHashMap dormant = chunk2Dormant.get(chunkOf(position));
+        if (dormant == null || !dormant.containsKey(position)) return false;
+
+        if (dormant.get(position) == signature) {
+            suppressedTicks++;
+            return true;
+        }
+        remove(dormant, position);
+        return false;
+    }
+
+    /**
+     * Forgets a dormant position, if it is one.
+     */
+    synchronized void wake(long position) {
+        Long2LongOpenHashMap dormant = chunk2Dormant.get(chunkOf(position));
+        if (dormant == null || !dormant.containsKey(position)) return;
+        remove(dormant, position);
+    }
+
+    private void remove(Long2LongOpenHashMap dormant, long position) {
+        dormant.remove(position);
+        dormantCount--;
+        if (dormant.isEmpty()) chunk2Dormant.remove(chunkOf(position));
+    }
+
+    synchronized void chunkUnloaded(int chunkX, int chunkZ) {
+        Long2LongOpenHashMap dormant = chunk2Dormant.remove(ChunkUtils.getChunkIndex(chunkX, chunkZ));
+        if (dormant != null) dormantCount -= dormant.size();
+    }
+
+    synchronized int dormantCount() {
+        return dormantCount;
+    }
+
+    synchronized long suppressedTicks() {
+        return suppressedTicks;
+    }
+
+    private static long chunkOf(long position) {
+        return ChunkUtils.getChunkIndex(BlockPosUtils.getX(position) >> 4, BlockPosUtils.getZ(position) >> 4);
+    }
+}
@@ -0,0 +1,93 @@
+package io.github.togar2.fluids;
+
+import it.unimi.dsi.fastutil.longs.Long2DoubleOpenHashMap;
+import net.minestom.server.coordinate.Vec;
+import net.minestom.server.instance.Instance;
+import net.minestom.server.instance.block.Block;
+import net.minestom.vanilla.utils.BlockPosUtils;
+
+/**
+ * Caches the fluid heights of an instance read during one tick, for entity movement querying the same blocks at
+ * several points of their hitbox.
+ * <p>
+ * Heights are keyed by packed position and the whole cache is reset when the tick changes. Blocks written by fluids
+ * invalidate their own height and the height of the block below through {@link #invalidate(long)}, other block
+ * changes are seen on the next tick. This class is thread-safe.
+ * </p>
+ */
+class FluidHeightCache {
+
+    private final Long2DoubleOpenHashMap heights = new Long2DoubleOpenHashMap();
+    private long tick = Long.MIN_VALUE;
+
+    FluidHeightCache() {
+        heights.defaultReturnValue(Double.NaN);
+    }
+
+    synchronized double getHeight(Instance instance, int x, int y, int z) {
+        startTick(instance.getWorldAge());
+        long position = BlockPosUtils.asLong(x, y, z);
+        double height = heights.get(position);
+        if (!Double.isNaN(height)) return height;
+
+        Block block = instance.getBlock(x, y, z);
+        height = MinestomFluids.get(block).getHeight(block, instance, new Vec(x, y, z));
+        heights.put(position, height);
+        return height;
+    }
+
+    /**
+     * Reads the heights of all blocks between two corners, both inclusive.
+     * Each column is read from the top so that every block is only read once.
+     */
+    synchronized FluidHeights getHeights(Instance instance, int minX, int minY, int minZ,
+                                         int maxX, int maxY, int maxZ) {
+        startTick(instance.getWorldAge());
+        int sizeX = maxX - minX + 1;
+        int sizeY = maxY - minY + 1;
+        int sizeZ = maxZ - minZ + 1;
+        double[] result = new double[sizeX * sizeY * sizeZ];
+
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                Fluid above = null;
+                for (int y = maxY; y >= minY; y--) {
+                    int index = ((x - minX) * sizeZ + (z - minZ)) * sizeY + (y - minY);
+                    long position = BlockPosUtils.asLong(x, y, z);
+                    double height = heights.get(position);
+                    if (!Double.isNaN(height)) {
+                        result[index] = height;
+                        above = null; // Not read, look it up again if needed
+                        continue;
+                    }
+
+                    Block block = instance.getBlock(x, y, z);
+                    Fluid fluid = MinestomFluids.get(block);
+                    if (fluid.isEmpty()) {
+                        height = 0;
+                    } else {
+                        if (above == null) above = MinestomFluids.get(instance.getBlock(x, y + 1, z));
+                        // Same as FlowableFluid#getHeight(Block, Instance, Point), without reading above again
+                        height = above == fluid ? 1 : fluid.getHeight(block);
+                    }
+                    heights.put(position, height);
+                    result[index] = height;
+                    above = fluid;
+                }
+            }
+        }
+        return new FluidHeights(minX, minY, minZ, sizeX, sizeY, sizeZ, result);
+    }
+
+    synchronized void invalidate(long position) {
+        if (heights.isEmpty()) return;
+        heights.remove(position);
+        heights.remove(BlockPosUtils.offset(position, 0, -1, 0));
+    }
+
+    private void startTick(long tick) {
+        if (this.tick == tick) return;
+        this.tick = tick;
+        heights.clear();
+    }
+}
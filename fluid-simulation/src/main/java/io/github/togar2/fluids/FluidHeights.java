@@ -0,0 +1,75 @@
+package io.github.togar2.fluids;
+
+/**
+ * The fluid heights of every block overlapped by a box, as returned by
+ * {@link MinestomFluids#getHeights(net.minestom.server.instance.Instance, net.minestom.server.coordinate.Point,
+ * net.minestom.server.coordinate.Point)}.
+ */
+public final class FluidHeights {
+    private final int minX, minY, minZ;
+    private final int sizeX, sizeY, sizeZ;
+    // Indexed by x, then z, then y
+    private final double[] heights;
+
+    FluidHeights(int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ, double[] heights) {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.heights = heights;
+    }
+
+    /**
+     * Gets the fluid height of a block, between 0 for no fluid and 1 for a full block.
+     *
+     * @throws IndexOutOfBoundsException if the block is not overlapped by the box
+     */
+    public double get(int x, int y, int z) {
+        int localX = x - minX;
+        int localY = y - minY;
+        int localZ = z - minZ;
+        if (localX < 0 || localX >= sizeX || localY < 0 || localY >= sizeY || localZ < 0 || localZ >= sizeZ) {
+            throw new IndexOutOfBoundsException("Block " + x + ", " + y + ", " + z + " is not in the box");
+        }
+        return heights[(localX * sizeZ + localZ) * sizeY + localY];
+    }
+
+    /**
+     * @return the highest fluid surface overlapped by the box in world coordinates, or NaN if there is no fluid
+     */
+    public double maxSurfaceY() {
+        double max = Double.NaN;
+        for (int i = 0; i < heights.length; i++) {
+            if (heights[i] <= 0) continue;
+            double surface = minY + i % sizeY + heights[i];
+            if (Double.isNaN(max) || surface > max) max = surface;
+        }
+        return max;
+    }
+
+    public int minX() {
+        return minX;
+    }
+
+    public int minY() {
+        return minY;
+    }
+
+    public int minZ() {
+        return minZ;
+    }
+
+    public int sizeX() {
+        return sizeX;
+    }
+
+    public int sizeY() {
+        return sizeY;
+    }
+
+    public int sizeZ() {
+        return sizeZ;
+    }
+}
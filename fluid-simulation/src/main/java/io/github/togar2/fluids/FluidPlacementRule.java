@@ -7,16 +7,37 @@ import net.minestom.server.instance.block.Block;
 import net.minestom.server.instance.block.BlockFace;
 import net.minestom.server.instance.block.rule.BlockPlacementRule;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+/**
+ * Schedules fluid ticks when a fluid, or a waterloggable block, is placed or updated.
+ * <p>
+ * Waterloggable blocks can already have a placement rule, such as stairs. That rule is kept as a delegate and runs
+ * first, the fluid logic then runs on the block it returns.
+ * </p>
+ */
 public class FluidPlacementRule extends BlockPlacementRule {
 
+    private final @Nullable BlockPlacementRule delegate;
+
     public FluidPlacementRule(@NotNull Block block) {
+        this(block, null);
+    }
+
+    public FluidPlacementRule(@NotNull Block block, @Nullable BlockPlacementRule delegate) {
         super(block);
+        this.delegate = delegate;
     }
 
     @Override
     public @NotNull Block blockUpdate(@NotNull Instance instance, @NotNull Point blockPosition,
                                       @NotNull Block currentBlock) {
+        if (delegate != null) {
+            currentBlock = delegate.blockUpdate(instance, blockPosition, currentBlock);
+        }
+        Block mixed = MinestomFluids.get(currentBlock).getMixedBlock(instance, blockPosition, currentBlock);
+        if (mixed != null) return mixed;
+
         MinestomFluids.scheduleTick(instance, blockPosition, currentBlock);
         return currentBlock;
     }
@@ -25,6 +46,9 @@ public class FluidPlacementRule extends BlockPlacementRule {
     public @NotNull Block blockPlace(@NotNull Instance instance, @NotNull Block block,
                                      @NotNull BlockFace blockFace, @NotNull Point blockPosition,
                                      @NotNull Player pl) {
+        if (delegate != null) {
+            block = delegate.blockPlace(instance, block, blockFace, blockPosition, pl);
+        }
         Point point = blockPosition.relative(blockFace);
         MinestomFluids.scheduleTick(instance, point, block);
 
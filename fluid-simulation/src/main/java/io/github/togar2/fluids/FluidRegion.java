@@ -0,0 +1,150 @@
+package io.github.togar2.fluids;
+
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import net.minestom.server.coordinate.Point;
+import net.minestom.server.instance.Instance;
+import net.minestom.server.instance.block.Block;
+import net.minestom.server.utils.chunk.ChunkUtils;
+import net.minestom.vanilla.utils.BlockPosUtils;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A group of due fluid ticks that can run concurrently with other regions of the same instance.
+ * <p>
+ * A fluid tick writes next to its position and reads up to its hole radius, plus one, around it. Positions closer
+ * than that to each other are put in the same region, so regions can never read each other's writes. Each region
+ * ticks on its own thread with its own write batch, hole search cache and block cursor; the world is not written
+ * to until every region is done and their batches have been merged in region order.
+ * </p>
+ */
+class FluidRegion {
+
+    private static final ThreadLocal<FluidRegion> CURRENT = new ThreadLocal<>();
+
+    private final Instance instance;
+    private final LongArrayList positions;
+    private final FluidWriteBatch batch = new FluidWriteBatch();
+    private final FluidSearchCache searchCache = new FluidSearchCache();
+    private final @Nullable FluidBlockCursor cursor;
+
+    FluidRegion(Instance instance, LongArrayList positions, boolean sectionCursor) {
+        this.instance = instance;
+        this.positions = positions;
+        this.cursor = sectionCursor ? new FluidBlockCursor() : null;
+        this.searchCache.startTick(instance.getWorldAge());
+    }
+
+    /**
+     * @return the region ticking on the calling thread for the given instance, or null
+     */
+    static @Nullable FluidRegion current(Instance instance) {
+        FluidRegion region = CURRENT.get();
+        return region != null && region.instance == instance ? region : null;
+    }
+
+    /**
+     * Ticks the positions of this region, on the calling thread.
+     */
+    void run() {
+        CURRENT.set(this);
+        batch.open();
+        if (cursor != null) cursor.open();
+        try {
+            for (int i = 0; i < positions.size(); i++) {
+                MinestomFluids.tick(instance, BlockPosUtils.toVec(positions.getLong(i)));
+            }
+        } finally {
+            if (cursor != null) cursor.close();
+            CURRENT.remove();
+        }
+    }
+
+    Block getBlock(int x, int y, int z) {
+        Block pending = batch.get(BlockPosUtils.asLong(x, y, z));
+        if (pending != null) return pending;
+        if (cursor != null) return cursor.getBlock(instance, x, y, z);
+        return instance.getBlock(x, y, z);
+    }
+
+    void setBlock(Point point, Block block) {
+        batch.set(BlockPosUtils.asLong(point), block);
+    }
+
+    FluidSearchCache searchCache() {
+        return searchCache;
+    }
+
+    FluidWriteBatch batch() {
+        return batch;
+    }
+
+    /**
+     * Splits positions into regions that are at least {@code separation} blocks apart horizontally.
+     *
+     * @param positions  the packed positions, in tick order
+     * @param separation the minimum distance between two regions
+     * @return the regions, ordered by their first position, each keeping the tick order
+     */
+    static List<LongArrayList> partition(LongList positions, int separation) {
+        // Positions within the separation of each other are always in the same or adjacent cells
+        Long2LongOpenHashMap parents = new Long2LongOpenHashMap();
+        for (int i = 0; i < positions.size(); i++) {
+            long cell = cellOf(positions.getLong(i), separation);
+            parents.put(cell, cell);
+        }
+        for (long cell : parents.keySet().toLongArray()) {
+            int cellX = ChunkUtils.getChunkCoordX(cell);
+            int cellZ = ChunkUtils.getChunkCoordZ(cell);
+            for (int offsetX = -1; offsetX <= 1; offsetX++) {
+                for (int offsetZ = -1; offsetZ <= 1; offsetZ++) {
+                    long other = ChunkUtils.getChunkIndex(cellX + offsetX, cellZ + offsetZ);
+                    if (other == cell || !parents.containsKey(other)) continue;
+                    union(parents, cell, other);
+                }
+            }
+        }
+
+        // Group the positions again in tick order, so each region ticks in the same order as a serial tick
+        Long2ObjectLinkedOpenHashMap<LongArrayList> root2Region = new Long2ObjectLinkedOpenHashMap<>();
+        for (int i = 0; i < positions.size(); i++) {
+            long position = positions.getLong(i);
+            long root = find(parents, cellOf(position, separation));
+            root2Region.computeIfAbsent(root, r -> new LongArrayList()).add(position);
+        }
+        return new ArrayList<>(root2Region.values());
+    }
+
+    private static long cellOf(long position, int separation) {
+        return ChunkUtils.getChunkIndex(
+                Math.floorDiv(BlockPosUtils.getX(position), separation),
+                Math.floorDiv(BlockPosUtils.getZ(position), separation));
+    }
+
+    private static long find(Long2LongOpenHashMap parents, long cell) {
+        long root = cell;
+        while (parents.get(root) != root) {
+            root = parents.get(root);
+        }
+        // Path compression
+        while (parents.get(cell) != root) {
+            long next = parents.get(cell);
+            parents.put(cell, root);
+            cell = next;
+        }
+        return root;
+    }
+
+    private static void union(Long2LongOpenHashMap parents, long a, long b) {
+        long rootA = find(parents, a);
+        long rootB = find(parents, b);
+        if (rootA != rootB) {
+            parents.put(rootA, rootB);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package io.github.togar2.fluids;
+
+import it.unimi.dsi.fastutil.longs.Long2ByteOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import net.minestom.server.instance.block.Block;
+import net.minestom.server.utils.Direction;
+import net.minestom.vanilla.utils.BlockPosUtils;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Caches the results of the hole searches of {@link FlowableFluid#getSpread} for one instance during one tick, so
+ * that neighboring fluid blocks share them instead of searching the same blocks again.
+ * <p>
+ * Two results are cached per fluid and packed position: whether the fluid can flow down from it, and the distance
+ * from it to the nearest hole for each direction the search can come from. Fluid writes invalidate the cache through
+ * {@link #invalidate(long, int)}, and the whole cache is reset when the tick changes. This class is not thread-safe,
+ * it must only be used by the thread ticking the instance's fluids.
+ * </p>
+ * <p>
+ * Distances are versioned per cell of {@value #CELL_SIZE}x{@value #CELL_SIZE} columns of one layer, and a write only
+ * retires the distances of the cells within the search radius of it.
+ * </p>
+ */
+class FluidSearchCache {
+
+    /**
+     * Returned by {@link Tables#distance} when no hole is reachable within the budget.
+     */
+    static final int NONE = -1;
+    /**
+     * Returned by {@link Tables#distance} and {@link Tables#hole} when the result is not cached.
+     */
+    static final int UNKNOWN = -2;
+
+    private static final int CELL_SHIFT = 3;
+    private static final int CELL_SIZE = 1 << CELL_SHIFT;
+
+    private static final byte NO_HOLE = 1;
+    private static final byte HOLE = 2;
+    private static final long NOT_CACHED = Long.MIN_VALUE;
+
+    private final Map<FlowableFluid, Tables> fluid2Tables = new HashMap<>();
+    private long tick = Long.MIN_VALUE;
+
+    /**
+     * Reused by {@link FlowableFluid#getSpread} for its result.
+     */
+    final EnumMap<Direction, Block> spread = new EnumMap<>(Direction.class);
+
+    /**
+     * Resets the cache if the tick changed.
+     */
+    void startTick(long tick) {
+        if (this.tick == tick) return;
+        this.tick = tick;
+        for (Tables tables : fluid2Tables.values()) {
+            tables.clear();
+        }
+    }
+
+    Tables tables(FlowableFluid fluid) {
+        return fluid2Tables.computeIfAbsent(fluid, f -> new Tables());
+    }
+
+    /**
+     * Invalidates the results that depend on the block at the given position.
+     *
+     * @param radius the horizontal distance up to which a search can read the block, usually the hole radius + 1
+     */
+    void invalidate(long position, int radius) {
+        for (Tables tables : fluid2Tables.values()) {
+            tables.invalidate(position, radius);
+        }
+    }
+
+    private static long cell(int x, int y, int z) {
+        return BlockPosUtils.asLong(x >> CELL_SHIFT, y, z >> CELL_SHIFT);
+    }
+
+    static final class Tables {
+        // Packed position -> HOLE or NO_HOLE
+        private final Long2ByteOpenHashMap holes = new Long2ByteOpenHashMap();
+        // Per skipped direction, packed position -> cell version in the high bits, distance in the low bits
+        // A distance of -(budget + 1) means no hole was found within that budget
+        private final Long2LongOpenHashMap[] distances = new Long2LongOpenHashMap[Direction.values().length];
+        // Packed cell -> version, bumped by the writes a distance in the cell may depend on
+        private final Long2IntOpenHashMap cellVersions = new Long2IntOpenHashMap();
+
+        private Tables() {
+            for (int i = 0; i < distances.length; i++) {
+                distances[i] = new Long2LongOpenHashMap();
+                distances[i].defaultReturnValue(NOT_CACHED);
+            }
+        }
+
+        private int version(long position) {
+            return cellVersions.get(cell(BlockPosUtils.getX(position), BlockPosUtils.getY(position),
+                    BlockPosUtils.getZ(position)));
+        }
+
+        /**
+         * @return 1 if the fluid can flow down from the position, 0 if not, or {@link #UNKNOWN}
+         */
+        int hole(long position) {
+            byte hole = holes.get(position);
+            if (hole == 0) return UNKNOWN;
+            return hole == HOLE ? 1 : 0;
+        }
+
+        void hole(long position, boolean hole) {
+            holes.put(position, hole ? HOLE : NO_HOLE);
+        }
+
+        /**
+         * @return the distance to the nearest hole when coming from the given direction, {@link #NONE} if there
+         * is none within the budget, or {@link #UNKNOWN}
+         */
+        int distance(long position, Direction skip, int budget) {
+            long entry = distances[skip.ordinal()].get(position);
+            if (entry == NOT_CACHED || (int) (entry >>> 32) != version(position)) return UNKNOWN;
+
+            int distance = (int) entry;
+            if (distance >= 0) return distance <= budget ? distance : NONE;
+            int searchedBudget = -distance - 1;
+            return budget <= searchedBudget ? NONE : UNKNOWN;
+        }
+
+        void distance(long position, Direction skip, int budget, int distance) {
+            int value = distance == NONE ? -(budget + 1) : distance;
+            distances[skip.ordinal()].put(position, ((long) version(position) << 32) | (value & 0xFFFFFFFFL));
+        }
+
+        private void invalidate(long position, int radius) {
+            // Whether a block is a hole depends on itself and the block below it
+            holes.remove(position);
+            holes.remove(BlockPosUtils.offset(position, 0, 1, 0));
+
+            // Searches stay on one layer, and read the layer below for holes
+            int x = BlockPosUtils.getX(position);
+            int y = BlockPosUtils.getY(position);
+            int z = BlockPosUtils.getZ(position);
+            int minCellX = (x - radius) >> CELL_SHIFT;
+            int maxCellX = (x + radius) >> CELL_SHIFT;
+            int minCellZ = (z - radius) >> CELL_SHIFT;
+            int maxCellZ = (z + radius) >> CELL_SHIFT;
+            for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                    cellVersions.addTo(BlockPosUtils.asLong(cellX, y, cellZ), 1);
+                    cellVersions.addTo(BlockPosUtils.asLong(cellX, y + 1, cellZ), 1);
+                }
+            }
+        }
+
+        private void clear() {
+            holes.clear();
+            for (Long2LongOpenHashMap map : distances) {
+                map.clear();
+            }
+            cellVersions.clear();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package io.github.togar2.fluids;
+
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.gamedata.tags.Tag;
+import net.minestom.server.instance.block.Block;
+
+import java.util.BitSet;
+
+/**
+ * Lookup tables of the fluid properties of every block state, indexed by state id.
+ * <p>
+ * Decoding the level property of a block means a property map lookup and a string parse, which adds up quickly as
+ * fluid ticks query their neighbors many times. The tables are built once from the block registry instead.
+ * </p>
+ */
+final class FluidStates {
+
+    private static final int LEVEL_MASK = 0xF;
+    private static final int SOURCE = 0x10;
+    private static final int FALLING = 0x20;
+
+    private static final Fluid[] FLUIDS;
+    // Level in the low 4 bits, then the source and falling flags
+    private static final byte[] FLAGS;
+
+    // States a fluid can flow into, replacing them
+    private static final BitSet REPLACEABLE = new BitSet();
+    // States that block fluids, used when checking whether a fluid receives flow
+    private static final BitSet SOLID = new BitSet();
+    // States that can hold water, whether they currently do or not
+    private static final BitSet WATERLOGGABLE = new BitSet();
+
+    static {
+        int maxStateId = 0;
+        for (Block block : Block.values()) {
+            for (Block state : block.possibleStates()) {
+                maxStateId = Math.max(maxStateId, state.stateId());
+            }
+        }
+
+        FLUIDS = new Fluid[maxStateId + 1];
+        FLAGS = new byte[maxStateId + 1];
+        Tag signs = MinecraftServer.getTagManager().getTag(Tag.BasicType.BLOCKS, "minecraft:signs");
+        for (Block block : Block.values()) {
+            for (Block state : block.possibleStates()) {
+                int stateId = state.stateId();
+                FLUIDS[stateId] = fluidOf(state);
+                FLAGS[stateId] = flagsOf(state);
+                REPLACEABLE.set(stateId, isReplaceable(state, signs));
+                SOLID.set(stateId, state.isSolid());
+                WATERLOGGABLE.set(stateId, state.getProperty("waterlogged") != null);
+            }
+        }
+    }
+
+    private FluidStates() {
+    }
+
+    /**
+     * Builds the tables now, rather than on the first fluid tick.
+     */
+    static void init() {
+    }
+
+    static Fluid fluid(int stateId) {
+        return stateId < FLUIDS.length ? FLUIDS[stateId] : MinestomFluids.EMPTY;
+    }
+
+    static boolean isSource(int stateId) {
+        return (FLAGS[stateId] & SOURCE) != 0;
+    }
+
+    static int level(int stateId) {
+        return FLAGS[stateId] & LEVEL_MASK;
+    }
+
+    static boolean isFalling(int stateId) {
+        return (FLAGS[stateId] & FALLING) != 0;
+    }
+
+    static boolean isReplaceable(int stateId) {
+        return REPLACEABLE.get(stateId);
+    }
+
+    static boolean isSolid(int stateId) {
+        return SOLID.get(stateId);
+    }
+
+    static boolean isWaterloggable(int stateId) {
+        return WATERLOGGABLE.get(stateId);
+    }
+
+    private static boolean isReplaceable(Block block, Tag signs) {
+        if (block.compare(Block.LADDER)
+                || block.compare(Block.SUGAR_CANE)
+                || block.compare(Block.BUBBLE_COLUMN)
+                || block.compare(Block.NETHER_PORTAL)
+                || block.compare(Block.END_PORTAL)
+                || block.compare(Block.END_GATEWAY)
+                || block.compare(Block.KELP)
+                || block.compare(Block.KELP_PLANT)
+                || block.compare(Block.SEAGRASS)
+                || block.compare(Block.TALL_SEAGRASS)
+                || block.compare(Block.SEA_PICKLE)
+                || (signs != null && signs.contains(block.namespace()))
+                || block.name().contains("door")
+                || block.name().contains("coral")) {
+            return false;
+        }
+        return !block.isSolid();
+    }
+
+    private static Fluid fluidOf(Block block) {
+        if ("true".equals(block.getProperty("waterlogged"))) {
+            // Waterlogged blocks are water sources
+            return MinestomFluids.WATER;
+        } else if (block.compare(Block.WATER)) {
+            return MinestomFluids.WATER;
+        } else if (block.compare(Block.LAVA)) {
+            return MinestomFluids.LAVA;
+        } else {
+            return MinestomFluids.EMPTY;
+        }
+    }
+
+    private static byte flagsOf(Block block) {
+        String levelStr = block.getProperty("level");
+        if (levelStr == null) return (byte) (8 | SOURCE);
+
+        int level = Integer.parseInt(levelStr);
+        int flags = level == 0 ? 8 | SOURCE : level; // Level 0 is a source block
+        if (level >= 8) flags |= FALLING;
+        return (byte) flags;
+    }
+}
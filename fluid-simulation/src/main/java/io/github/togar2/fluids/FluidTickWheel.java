@@ -0,0 +1,130 @@
+package io.github.togar2.fluids;
+
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+
+/**
+ * A ring buffer of scheduled fluid ticks for one instance, holding positions packed with
+ * {@link net.minestom.vanilla.utils.BlockPosUtils}.
+ * <p>
+ * Each bucket holds the ticks due on the world ages that map to it. Ticks further away than the wheel size stay in
+ * their bucket until their lap comes around. A position can only be scheduled once at a time, like vanilla's
+ * scheduled ticks. Ticks can be scheduled from any thread.
+ * </p>
+ * <p>
+ * At most a budget of ticks are drained per world age. Due ticks over the budget are deferred, and drained first on
+ * the next world ages in the order they were due.
+ * </p>
+ */
+class FluidTickWheel {
+
+    // Larger than every fluid tick rate, so most ticks are drained on their first lap
+    private static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    private final LongArrayList[] buckets = new LongArrayList[WHEEL_SIZE];
+    // Packed position -> due tick
+    private final Long2LongOpenHashMap scheduled = new Long2LongOpenHashMap();
+
+    // Due ticks over the budget, oldest first, with the world age they were due at
+    private final LongArrayFIFOQueue deferred = new LongArrayFIFOQueue();
+    private final LongArrayFIFOQueue deferredDueTicks = new LongArrayFIFOQueue();
+
+    // Only used by the ticking thread
+    private final LongArrayList drained = new LongArrayList();
+
+    volatile int budget;
+    volatile int lastTickExecuted = 0;
+
+    FluidTickWheel(int budget) {
+        this.budget = budget;
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            buckets[i] = new LongArrayList();
+        }
+    }
+
+    /**
+     * Schedules a tick at the given position.
+     *
+     * @param position the packed position
+     * @param dueTick  the world age to tick the position at
+     * @return false if the position already had a scheduled tick
+     */
+    synchronized boolean schedule(long position, long dueTick) {
+        if (scheduled.containsKey(position)) return false;
+        scheduled.put(position, dueTick);
+        buckets[(int) (dueTick & WHEEL_MASK)].add(position);
+        return true;
+    }
+
+    synchronized boolean isScheduled(long position) {
+        return scheduled.containsKey(position);
+    }
+
+    /**
+     * Removes up to {@code budget} ticks: the deferred ones first, then the ones due at the given world age, in
+     * scheduling order. Due ticks over the budget are deferred.
+     * The drained positions can be scheduled again straight away.
+     *
+     * @param tick   the current world age
+     * @param budget the maximum amount of ticks to drain
+     * @return the positions to tick, only valid until the next call
+     */
+    LongList drain(long tick, int budget) {
+        drained.clear();
+        synchronized (this) {
+            while (!deferred.isEmpty() && drained.size() < budget) {
+                long position = deferred.dequeueLong();
+                deferredDueTicks.dequeueLong();
+                scheduled.remove(position);
+                drained.add(position);
+            }
+
+            LongArrayList bucket = buckets[(int) (tick & WHEEL_MASK)];
+            if (bucket.isEmpty()) return drained;
+
+            int kept = 0;
+            for (int i = 0; i < bucket.size(); i++) {
+                long position = bucket.getLong(i);
+                long dueTick = scheduled.get(position);
+                if (dueTick > tick) {
+                    // Due on a later lap
+                    bucket.set(kept++, position);
+                } else if (drained.size() < budget) {
+                    scheduled.remove(position);
+                    drained.add(position);
+                } else {
+                    // Stays scheduled until it runs, so that it is not scheduled twice
+                    deferred.enqueue(position);
+                    deferredDueTicks.enqueue(dueTick);
+                }
+            }
+            bucket.size(kept);
+        }
+        return drained;
+    }
+
+    /**
+     * @return the amount of scheduled ticks, including the deferred ones
+     */
+    synchronized int size() {
+        return scheduled.size();
+    }
+
+    /**
+     * @return the amount of due ticks deferred by the budget
+     */
+    synchronized int deferredCount() {
+        return deferred.size();
+    }
+
+    /**
+     * @return how many world ages the oldest deferred tick is late by, or 0 if no tick is deferred
+     */
+    synchronized long oldestDeferralAge(long tick) {
+        if (deferredDueTicks.isEmpty()) return 0;
+        return tick - deferredDueTicks.firstLong();
+    }
+}
@@ -0,0 +1,157 @@
+package io.github.togar2.fluids;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.coordinate.Point;
+import net.minestom.server.instance.Chunk;
+import net.minestom.server.instance.Instance;
+import net.minestom.server.instance.block.Block;
+import net.minestom.server.instance.block.rule.BlockPlacementRule;
+import net.minestom.server.network.packet.server.play.MultiBlockChangePacket;
+import net.minestom.server.utils.Direction;
+import net.minestom.vanilla.utils.BlockPosUtils;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Collects the blocks written by the fluid ticks of one instance during a tick, and applies them all at once.
+ * <p>
+ * While the batch is open, fluid logic reads its own pending writes through {@link #get(long)}, so fluids behave as if
+ * every write was applied straight away. Applying the batch writes the blocks directly into their chunks, sends one
+ * multi block change packet per changed section, and then runs the placement rules of the changed blocks and their
+ * neighbors like {@link Instance#setBlock} would have. This class is not thread-safe, it must only be used by the
+ * thread ticking the instance's fluids.
+ * </p>
+ * <p>
+ * Writing into the chunk skips the {@link net.minestom.server.instance.block.BlockHandler} callbacks, so writes that
+ * replace or place a block with a handler are not batched: they go through {@link Instance#setBlock} when the batch is
+ * applied, which calls {@code onDestroy} and {@code onPlace} and updates the neighbors itself.
+ * </p>
+ */
+class FluidWriteBatch {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    // Packed position -> block, in write order
+    private final Long2ObjectLinkedOpenHashMap<Block> blocks = new Long2ObjectLinkedOpenHashMap<>();
+    // The thread running the fluid tick while the batch is open
+    private volatile Thread owner = null;
+
+    void open() {
+        owner = Thread.currentThread();
+    }
+
+    /**
+     * @return true if the batch is open on the calling thread, writes from other threads are never batched
+     */
+    boolean isOpen() {
+        return owner == Thread.currentThread();
+    }
+
+    void set(long position, Block block) {
+        blocks.put(position, block);
+    }
+
+    /**
+     * @return the block pending at the given position, or null if it was not written
+     */
+    @Nullable Block get(long position) {
+        return blocks.get(position);
+    }
+
+    int size() {
+        return blocks.size();
+    }
+
+    /**
+     * Moves the writes of this batch into another, in write order.
+     */
+    void mergeInto(FluidWriteBatch other) {
+        for (Long2ObjectMap.Entry<Block> entry : blocks.long2ObjectEntrySet()) {
+            other.set(entry.getLongKey(), entry.getValue());
+        }
+        blocks.clear();
+    }
+
+    /**
+     * Closes the batch and applies its writes.
+     */
+    void apply(Instance instance) {
+        owner = null;
+        if (blocks.isEmpty()) return;
+
+        // Packed section position -> encoded block changes
+        Long2ObjectMap<LongArrayList> section2Changes = new Long2ObjectOpenHashMap<>();
+        // Positions written into their chunk, whose placement rules still have to run
+        LongArrayList positions = new LongArrayList(blocks.size());
+        for (Long2ObjectMap.Entry<Block> entry : blocks.long2ObjectEntrySet()) {
+            long position = entry.getLongKey();
+            int x = BlockPosUtils.getX(position);
+            int y = BlockPosUtils.getY(position);
+            int z = BlockPosUtils.getZ(position);
+            Chunk chunk = instance.getChunk(x >> 4, z >> 4);
+            if (chunk == null) continue;
+
+            Block block = entry.getValue();
+            boolean handled;
+            synchronized (chunk) {
+                handled = block.handler() != null || chunk.getBlock(x, y, z).handler() != null;
+                if (!handled) chunk.setBlock(x, y, z, block);
+            }
+            if (handled) {
+                // Runs the handlers, sends the change and updates the neighbors
+                instance.setBlock(x, y, z, block);
+                MinestomFluids.heightChanged(instance, position);
+                continue;
+            }
+            MinestomFluids.heightChanged(instance, position);
+            positions.add(position);
+            long section = BlockPosUtils.asLong(x >> 4, y >> 4, z >> 4);
+            long change = ((long) block.stateId() << 12) | ((x & 15) << 8) | ((z & 15) << 4) | (y & 15);
+            section2Changes.computeIfAbsent(section, s -> new LongArrayList()).add(change);
+        }
+
+        for (Long2ObjectMap.Entry<LongArrayList> entry : section2Changes.long2ObjectEntrySet()) {
+            long section = entry.getLongKey();
+            int chunkX = BlockPosUtils.getX(section);
+            int sectionY = BlockPosUtils.getY(section);
+            int chunkZ = BlockPosUtils.getZ(section);
+            Chunk chunk = instance.getChunk(chunkX, chunkZ);
+            if (chunk == null) continue;
+            chunk.sendPacketToViewers(new MultiBlockChangePacket(chunkX, sectionY, chunkZ, false,
+                    entry.getValue().toLongArray()));
+        }
+
+        // Placement rules of the changed blocks and their neighbors, each run once
+        LongSet updated = new LongOpenHashSet();
+        blocks.clear();
+        for (int i = 0; i < positions.size(); i++) {
+            long position = positions.getLong(i);
+            runPlacementRule(instance, position, updated);
+            for (Direction direction : DIRECTIONS) {
+                long neighbor = BlockPosUtils.offset(position,
+                        direction.normalX(), direction.normalY(), direction.normalZ());
+                runPlacementRule(instance, neighbor, updated);
+            }
+        }
+    }
+
+    private static void runPlacementRule(Instance instance, long position, LongSet updated) {
+        if (!updated.add(position)) return;
+        Point point = BlockPosUtils.toVec(position);
+        if (!instance.isChunkLoaded(point)) return;
+
+        Block block = instance.getBlock(point);
+        BlockPlacementRule rule = MinecraftServer.getBlockManager().getBlockPlacementRule(block);
+        if (rule == null) return;
+
+        Block result = rule.blockUpdate(instance, point, block);
+        if (result != block) {
+            instance.setBlock(point, result);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package io.github.togar2.fluids;
+
+import net.minestom.server.coordinate.Point;
+import net.minestom.server.instance.Instance;
+import net.minestom.server.instance.block.Block;
+import net.minestom.server.item.Material;
+import net.minestom.server.utils.Direction;
+
+public class LavaFluid extends FlowableFluid {
+
+    // The directions lava checks for water, all but below
+    private static final Direction[] MIXING_DIRECTIONS = {
+            Direction.UP, Direction.NORTH, Direction.SOUTH, Direction.WEST, Direction.EAST
+    };
+
+    public LavaFluid() {
+        super(Block.LAVA, Material.LAVA_BUCKET);
+    }
+
+    @Override
+    public void onTick(Instance instance, Point point, Block block) {
+        Block mixed = getMixedBlock(instance, point, block);
+        if (mixed != null) {
+            setBlock(instance, point, mixed);
+            return;
+        }
+        super.onTick(instance, point, block);
+    }
+
+    @Override
+    protected boolean isInfinite() {
+        return false;
+    }
+
+    @Override
+    protected boolean onBreakingBlock(Instance instance, Point point, Block block) {
+        return true;
+    }
+
+    @Override
+    protected int getHoleRadius(Instance instance) {
+        return isUltrawarm(instance) ? 4 : 2;
+    }
+
+    @Override
+    public int getLevelDecreasePerBlock(Instance instance) {
+        return isUltrawarm(instance) ? 1 : 2;
+    }
+
+    @Override
+    public int getTickRate(Instance instance) {
+        return isUltrawarm(instance) ? 10 : 30;
+    }
+
+    @Override
+    protected boolean canBeReplacedWith(Instance instance, Point point, Fluid other, Direction direction) {
+        return other == MinestomFluids.WATER
+                && getHeight(MinestomFluids.getBlock(instance, point), instance, point) >= 0.44444445;
+    }
+
+    /**
+     * Turns water below into stone instead of flowing into it
+     */
+    @Override
+    protected void flow(Instance instance, Point point, Block block, Direction direction, Block newBlock) {
+        if (direction == Direction.DOWN && MinestomFluids.get(block) == MinestomFluids.WATER) {
+            setBlock(instance, point, Block.STONE);
+            return;
+        }
+        super.flow(instance, point, block, direction, newBlock);
+    }
+
+    /**
+     * Lava touching water becomes obsidian if it is a source, or cobblestone otherwise.
+     * Lava above soul soil touching blue ice becomes basalt.
+     */
+    @Override
+    public Block getMixedBlock(Instance instance, Point point, Block block) {
+        boolean soulSoil = MinestomFluids.getBlock(instance, point.add(0, -1, 0)).compare(Block.SOUL_SOIL);
+        for (Direction direction : MIXING_DIRECTIONS) {
+            Block neighbor = MinestomFluids.getBlock(instance, point.add(direction.normalX(), direction.normalY(), direction.normalZ()));
+            if (MinestomFluids.get(neighbor) == MinestomFluids.WATER) {
+                return isSource(block) ? Block.OBSIDIAN : Block.COBBLESTONE;
+            }
+            if (soulSoil && neighbor.compare(Block.BLUE_ICE)) {
+                return Block.BASALT;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    protected double getBlastResistance() {
+        return 100;
+    }
+
+    private static boolean isUltrawarm(Instance instance) {
+        return instance.getDimensionType().isUltrawarm();
+    }
+}
@@ -1,65 +1,502 @@
 package io.github.togar2.fluids;
 
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
 import net.minestom.server.ServerProcess;
 import net.minestom.server.coordinate.Point;
 import net.minestom.server.event.Event;
 import net.minestom.server.event.EventNode;
+import net.minestom.server.event.instance.InstanceChunkUnloadEvent;
 import net.minestom.server.event.instance.InstanceTickEvent;
+import net.minestom.server.event.instance.InstanceUnregisterEvent;
+import net.minestom.server.event.player.PlayerBlockBreakEvent;
+import net.minestom.server.event.player.PlayerBlockPlaceEvent;
 import net.minestom.server.instance.Instance;
 import net.minestom.server.instance.block.Block;
+import net.minestom.server.instance.block.rule.BlockPlacementRule;
+import net.minestom.server.utils.Direction;
+import net.minestom.vanilla.utils.BlockPosUtils;
+import net.minestom.vanilla.utils.SeedUtils;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 public class MinestomFluids {
     public static final Fluid WATER = new WaterFluid();
+    public static final Fluid LAVA = new LavaFluid();
     public static final Fluid EMPTY = new EmptyFluid();
 
-    private static final Map<Instance, Map<Long, Set<Point>>> UPDATES = new ConcurrentHashMap<>();
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private static final Map<Instance, FluidTickWheel> UPDATES = new ConcurrentHashMap<>();
+    private static final Map<Instance, FluidSearchCache> SEARCH_CACHES = new ConcurrentHashMap<>();
+    private static final Map<Instance, FluidWriteBatch> WRITE_BATCHES = new ConcurrentHashMap<>();
+    private static final Map<Instance, FluidBlockCursor> CURSORS = new ConcurrentHashMap<>();
+    private static final Map<Instance, FluidDormancy> DORMANCIES = new ConcurrentHashMap<>();
+    private static final Map<Instance, FluidHeightCache> HEIGHT_CACHES = new ConcurrentHashMap<>();
+
+    private static volatile boolean batchWrites = Boolean.getBoolean("vri.fluids.batchwrites");
+    private static volatile boolean sectionCursor = Boolean.getBoolean("vri.fluids.sectioncursor");
+    private static volatile boolean parallel = Boolean.getBoolean("vri.fluids.parallel");
+
+    // Below this amount of due ticks, partitioning them costs more than it saves
+    private static final int PARALLEL_THRESHOLD = 256;
+    private static final int DEFAULT_TICK_BUDGET = Integer.getInteger("vri.fluids.tickbudget", 65536);
 
     public static Fluid get(Block block) {
-        if (block.compare(Block.WATER)) {
-            return WATER;
-        } else if (block.compare(Block.LAVA)) {
-            return EMPTY;
-        } else {
-            return EMPTY;
-        }
+        return FluidStates.fluid(block.stateId());
     }
 
     public static void tick(InstanceTickEvent event) {
-        Set<Point> currentUpdate = UPDATES.computeIfAbsent(event.getInstance(), i -> new ConcurrentHashMap<>())
-                .get(event.getInstance().getWorldAge());
-        if (currentUpdate == null) return;
-        for (Point point : currentUpdate) {
-            tick(event.getInstance(), point);
+        Instance instance = event.getInstance();
+        FluidTickWheel wheel = wheel(instance);
+        LongList currentUpdate = wheel.drain(instance.getWorldAge(), wheel.budget);
+        wheel.lastTickExecuted = currentUpdate.size();
+        if (currentUpdate.isEmpty()) return;
+
+        if (parallel && currentUpdate.size() >= PARALLEL_THRESHOLD) {
+            List<LongArrayList> partitions = FluidRegion.partition(currentUpdate, regionSeparation(instance));
+            if (partitions.size() > 1) {
+                tickParallel(instance, partitions);
+                return;
+            }
+        }
+
+        FluidWriteBatch batch = batchWrites ? writeBatch(instance) : null;
+        FluidBlockCursor cursor = sectionCursor ? cursor(instance) : null;
+        if (batch != null) batch.open();
+        if (cursor != null) cursor.open();
+        try {
+            for (int i = 0; i < currentUpdate.size(); i++) {
+                tick(instance, BlockPosUtils.toVec(currentUpdate.getLong(i)));
+            }
+        } finally {
+            if (cursor != null) cursor.close();
+            if (batch != null) batch.apply(instance);
+        }
+    }
+
+    private static void tickParallel(Instance instance, List<LongArrayList> partitions) {
+        List<FluidRegion> regions = new ArrayList<>(partitions.size());
+        List<Callable<Void>> tasks = new ArrayList<>(partitions.size());
+        for (LongArrayList positions : partitions) {
+            FluidRegion region = new FluidRegion(instance, positions, sectionCursor);
+            regions.add(region);
+            tasks.add(() -> {
+                region.run();
+                return null;
+            });
+        }
+
+        try {
+            for (Future<Void> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                } catch (ExecutionException e) {
+                    throw new RuntimeException(e.getCause());
+                }
+            }
+        } finally {
+            // Merge in region order, so the world sees the writes in the same order every run
+            FluidWriteBatch batch = writeBatch(instance);
+            for (FluidRegion region : regions) {
+                region.batch().mergeInto(batch);
+            }
+            batch.apply(instance);
         }
-        UPDATES.get(event.getInstance()).remove(event.getInstance().getWorldAge());
+    }
+
+    /**
+     * Gets the minimum distance between two fluid regions, so that no fluid tick of one reads a block written by
+     * the other: one block for the write, the hole search radius and one more block for the neighbor's state.
+     */
+    private static int regionSeparation(Instance instance) {
+        return maxHoleRadius(instance) + 2;
+    }
+
+    /**
+     * @return the largest hole search radius of the fluids in the instance
+     */
+    static int maxHoleRadius(Instance instance) {
+        return Math.max(((FlowableFluid) WATER).getHoleRadius(instance),
+                ((FlowableFluid) LAVA).getHoleRadius(instance));
     }
 
     public static void tick(Instance instance, Point point) {
-        get(instance.getBlock(point)).onTick(instance, point, instance.getBlock(point));
+        Block block = getBlock(instance, point);
+        get(block).onTick(instance, point, block);
+    }
+
+    /**
+     * Gets a block as seen by fluids, including the writes of the current fluid tick if they are batched.
+     */
+    public static Block getBlock(Instance instance, Point point) {
+        return getBlock(instance, point.blockX(), point.blockY(), point.blockZ());
+    }
+
+    /**
+     * Gets a block as seen by fluids, like {@link #getBlock(Instance, Point)}, without allocating a point.
+     */
+    public static Block getBlock(Instance instance, int x, int y, int z) {
+        if (parallel) {
+            FluidRegion region = FluidRegion.current(instance);
+            if (region != null) return region.getBlock(x, y, z);
+        }
+        if (batchWrites) {
+            FluidWriteBatch batch = WRITE_BATCHES.get(instance);
+            if (batch != null && batch.isOpen()) {
+                Block pending = batch.get(BlockPosUtils.asLong(x, y, z));
+                if (pending != null) return pending;
+            }
+        }
+        if (sectionCursor) {
+            FluidBlockCursor cursor = CURSORS.get(instance);
+            if (cursor != null && cursor.isOpen()) {
+                return cursor.getBlock(instance, x, y, z);
+            }
+        }
+        return instance.getBlock(x, y, z);
+    }
+
+    /**
+     * Sets a block changed by a fluid, added to the instance's write batch during a batched fluid tick.
+     */
+    static void setBlock(Instance instance, Point point, Block block) {
+        wake(instance, BlockPosUtils.asLong(point));
+        if (parallel) {
+            FluidRegion region = FluidRegion.current(instance);
+            if (region != null) {
+                region.setBlock(point, block);
+                return;
+            }
+        }
+        if (batchWrites) {
+            FluidWriteBatch batch = WRITE_BATCHES.get(instance);
+            if (batch != null && batch.isOpen()) {
+                batch.set(BlockPosUtils.asLong(point), block);
+                return;
+            }
+        }
+        instance.setBlock(point, block);
+        heightChanged(instance, BlockPosUtils.asLong(point));
+    }
+
+    /**
+     * Invalidates the cached fluid heights affected by a block written at the given position.
+     */
+    static void heightChanged(Instance instance, long position) {
+        FluidHeightCache cache = HEIGHT_CACHES.get(instance);
+        if (cache != null) cache.invalidate(position);
+    }
+
+    /**
+     * Gets the fluid height of a block, between 0 for no fluid and 1 for a full block.
+     * <p>
+     * Heights are cached for the rest of the tick, so repeated queries such as the hitbox points of moving entities
+     * only read the world once. Changes to non fluid blocks may be seen a tick late.
+     * </p>
+     */
+    public static double getHeight(Instance instance, Point point) {
+        return heightCache(instance).getHeight(instance, point.blockX(), point.blockY(), point.blockZ());
+    }
+
+    /**
+     * Gets the fluid heights of every block overlapped by a box, in one call.
+     *
+     * @param min the lowest corner of the box
+     * @param max the highest corner of the box
+     * @see #getHeight(Instance, Point)
+     */
+    public static FluidHeights getHeights(Instance instance, Point min, Point max) {
+        int minX = min.blockX();
+        int minY = min.blockY();
+        int minZ = min.blockZ();
+        // A block is only overlapped if the box goes past its lower face
+        int maxX = Math.max(minX, (int) Math.ceil(max.x()) - 1);
+        int maxY = Math.max(minY, (int) Math.ceil(max.y()) - 1);
+        int maxZ = Math.max(minZ, (int) Math.ceil(max.z()) - 1);
+        return heightCache(instance).getHeights(instance, minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    private static FluidHeightCache heightCache(Instance instance) {
+        FluidHeightCache cache = HEIGHT_CACHES.get(instance);
+        if (cache != null) return cache;
+        return HEIGHT_CACHES.computeIfAbsent(instance, i -> new FluidHeightCache());
+    }
+
+    /**
+     * @return true if the blocks written by fluid ticks are batched
+     */
+    public static boolean batchWrites() {
+        return batchWrites;
+    }
+
+    /**
+     * Sets whether the blocks written by the fluid ticks of a tick are batched.
+     * <p>
+     * When enabled, fluid writes are collected during the fluid tick and applied at its end, with one multi block
+     * change packet per changed chunk section instead of one block change packet per block. Fluids still see their
+     * own writes straight away. Placement rules of the changed blocks run when the batch is applied.
+     * </p>
+     *
+     * @param batchWrites true to batch fluid writes
+     */
+    public static void batchWrites(boolean batchWrites) {
+        MinestomFluids.batchWrites = batchWrites;
+    }
+
+    /**
+     * @return true if fluids read blocks through a section palette cursor
+     */
+    public static boolean sectionCursor() {
+        return sectionCursor;
+    }
+
+    /**
+     * Sets whether fluids read blocks through a section palette cursor.
+     * <p>
+     * When enabled, fluid reads go straight to the block palettes of the sections around the fluid, cached for the
+     * tick, instead of resolving the chunk through the instance on every read. Fluids behave the same either way.
+     * </p>
+     *
+     * @param sectionCursor true to read blocks through a section palette cursor
+     */
+    public static void sectionCursor(boolean sectionCursor) {
+        MinestomFluids.sectionCursor = sectionCursor;
+    }
+
+    /**
+     * @return true if fluid ticks are split into regions ticked in parallel
+     */
+    public static boolean parallel() {
+        return parallel;
+    }
+
+    /**
+     * Sets whether the due fluid ticks of an instance are split into independent regions ticked in parallel.
+     * <p>
+     * When enabled, due fluid ticks far enough apart to never read each other's writes are ticked concurrently on
+     * the common {@link ForkJoinPool}. Their writes are batched per region and applied together once all regions
+     * are done, in the same order every run, as if {@link #batchWrites(boolean)} was enabled for those ticks.
+     * </p>
+     *
+     * @param parallel true to tick fluid regions in parallel
+     */
+    public static void parallel(boolean parallel) {
+        MinestomFluids.parallel = parallel;
+    }
+
+    private static FluidBlockCursor cursor(Instance instance) {
+        FluidBlockCursor cursor = CURSORS.get(instance);
+        if (cursor != null) return cursor;
+        return CURSORS.computeIfAbsent(instance, i -> new FluidBlockCursor());
+    }
+
+    private static FluidWriteBatch writeBatch(Instance instance) {
+        FluidWriteBatch batch = WRITE_BATCHES.get(instance);
+        if (batch != null) return batch;
+        return WRITE_BATCHES.computeIfAbsent(instance, i -> new FluidWriteBatch());
     }
 
     public static void scheduleTick(Instance instance, Point point, Block block) {
         int tickDelay = MinestomFluids.get(block).getNextTickDelay(instance, point, block);
-        if (tickDelay == -1) return;
+        long position = BlockPosUtils.asLong(point);
+        if (tickDelay == -1) {
+            // Not a fluid anymore
+            wake(instance, position);
+            return;
+        }
+
+        FluidDormancy dormancy = DORMANCIES.get(instance);
+        if (dormancy != null && dormancy.isDormant(position)
+                && dormancy.suppressTick(position, neighborhoodSignature(instance, point))) return;
 
-        //TODO figure out a way to remove instance from map if unregistered?
         long newAge = instance.getWorldAge() + tickDelay;
-        UPDATES.get(instance).computeIfAbsent(newAge, l -> new HashSet<>()).add(point);
+        wheel(instance).schedule(position, newAge);
+    }
+
+    /**
+     * Marks a fluid position as at rest, it will not be ticked again until itself or a neighbor changes.
+     */
+    static void markDormant(Instance instance, Point point) {
+        dormancy(instance).markDormant(BlockPosUtils.asLong(point), neighborhoodSignature(instance, point));
+    }
+
+    /**
+     * Forgets a dormant fluid position, when its block is written or is no longer a fluid.
+     */
+    private static void wake(Instance instance, long position) {
+        FluidDormancy dormancy = DORMANCIES.get(instance);
+        if (dormancy != null) dormancy.wake(position);
+    }
+
+    private static long neighborhoodSignature(Instance instance, Point point) {
+        long signature = SeedUtils.mix64(getBlock(instance, point).stateId());
+        for (Direction direction : DIRECTIONS) {
+            Block neighbor = getBlock(instance, point.blockX() + direction.normalX(),
+                    point.blockY() + direction.normalY(), point.blockZ() + direction.normalZ());
+            signature = SeedUtils.mix64(signature + SeedUtils.GOLDEN_GAMMA + neighbor.stateId());
+        }
+        return signature;
+    }
+
+    /**
+     * @return the amount of fluid positions at rest in the given instance
+     */
+    public static int dormantFluidCount(Instance instance) {
+        FluidDormancy dormancy = DORMANCIES.get(instance);
+        return dormancy == null ? 0 : dormancy.dormantCount();
+    }
+
+    /**
+     * @return the amount of fluid positions waiting to be ticked in the given instance
+     */
+    public static int activeFluidCount(Instance instance) {
+        return scheduledTickCount(instance);
+    }
+
+    /**
+     * @return the amount of ticks dropped so far because their fluid was at rest in the given instance
+     */
+    public static long suppressedTickCount(Instance instance) {
+        FluidDormancy dormancy = DORMANCIES.get(instance);
+        return dormancy == null ? 0 : dormancy.suppressedTicks();
+    }
+
+    private static FluidDormancy dormancy(Instance instance) {
+        FluidDormancy dormancy = DORMANCIES.get(instance);
+        if (dormancy != null) return dormancy;
+        return DORMANCIES.computeIfAbsent(instance, i -> new FluidDormancy());
+    }
+
+    /**
+     * @return the amount of fluid ticks scheduled in the given instance
+     */
+    public static int scheduledTickCount(Instance instance) {
+        FluidTickWheel wheel = UPDATES.get(instance);
+        return wheel == null ? 0 : wheel.size();
+    }
+
+    /**
+     * @return the maximum amount of fluid ticks run per tick in the given instance
+     */
+    public static int tickBudget(Instance instance) {
+        return wheel(instance).budget;
+    }
+
+    /**
+     * Sets the maximum amount of fluid ticks run per tick in the given instance.
+     * <p>
+     * Due fluid ticks over the budget are deferred to the next ticks, and run before newer ones in the order they
+     * were due. Fluids then arrive late instead of freezing the server.
+     * </p>
+     *
+     * @param tickBudget the new budget, must be positive
+     */
+    public static void tickBudget(Instance instance, int tickBudget) {
+        if (tickBudget <= 0) {
+            throw new IllegalArgumentException("Tick budget must be positive: " + tickBudget);
+        }
+        wheel(instance).budget = tickBudget;
+    }
+
+    /**
+     * @return the amount of due fluid ticks deferred by the tick budget in the given instance
+     */
+    public static int deferredTickCount(Instance instance) {
+        FluidTickWheel wheel = UPDATES.get(instance);
+        return wheel == null ? 0 : wheel.deferredCount();
+    }
+
+    /**
+     * @return how many ticks late the oldest deferred fluid tick of the given instance is, or 0 if none is deferred
+     */
+    public static long oldestDeferralAge(Instance instance) {
+        FluidTickWheel wheel = UPDATES.get(instance);
+        return wheel == null ? 0 : wheel.oldestDeferralAge(instance.getWorldAge());
+    }
+
+    /**
+     * @return the amount of fluid ticks run during the last tick of the given instance
+     */
+    public static int lastTickExecutedCount(Instance instance) {
+        FluidTickWheel wheel = UPDATES.get(instance);
+        return wheel == null ? 0 : wheel.lastTickExecuted;
+    }
+
+    private static FluidTickWheel wheel(Instance instance) {
+        FluidTickWheel wheel = UPDATES.get(instance);
+        if (wheel != null) return wheel;
+        return UPDATES.computeIfAbsent(instance, i -> new FluidTickWheel(DEFAULT_TICK_BUDGET));
+    }
+
+    /**
+     * Gets the hole search cache of an instance, reset if it is from a previous tick.
+     */
+    static FluidSearchCache searchCache(Instance instance) {
+        if (parallel) {
+            FluidRegion region = FluidRegion.current(instance);
+            if (region != null) return region.searchCache();
+        }
+        FluidSearchCache cache = SEARCH_CACHES.get(instance);
+        if (cache == null) {
+            cache = SEARCH_CACHES.computeIfAbsent(instance, i -> new FluidSearchCache());
+        }
+        cache.startTick(instance.getWorldAge());
+        return cache;
     }
 
     public static void init(ServerProcess process) {
-        process.block().registerBlockPlacementRule(new FluidPlacementRule(Block.WATER));
+        FluidStates.init();
+        registerPlacementRule(process, Block.WATER);
+        registerPlacementRule(process, Block.LAVA);
+        // Waterlogged blocks tick as water when their neighbors change
+        for (Block block : Block.values()) {
+            if (FluidStates.isWaterloggable(block.stateId())) {
+                registerPlacementRule(process, block);
+            }
+        }
         process.eventHandler().addChild(events());
     }
 
+    /**
+     * Registers the fluid placement rule of a block, wrapping the rule already registered for it if any.
+     */
+    private static void registerPlacementRule(ServerProcess process, Block block) {
+        BlockPlacementRule existing = process.block().getBlockPlacementRule(block);
+        if (existing instanceof FluidPlacementRule) return;
+        process.block().registerBlockPlacementRule(new FluidPlacementRule(block, existing));
+    }
+
     public static EventNode<Event> events() {
         EventNode<Event> node = EventNode.all("fluid-events");
         node.addListener(InstanceTickEvent.class, MinestomFluids::tick);
+        node.addListener(InstanceUnregisterEvent.class, event -> {
+            UPDATES.remove(event.getInstance());
+            SEARCH_CACHES.remove(event.getInstance());
+            WRITE_BATCHES.remove(event.getInstance());
+            CURSORS.remove(event.getInstance());
+            DORMANCIES.remove(event.getInstance());
+            HEIGHT_CACHES.remove(event.getInstance());
+        });
+        // Blocks replaced by players are not written through the fluids
+        node.addListener(PlayerBlockBreakEvent.class, event ->
+                wake(event.getPlayer().getInstance(), BlockPosUtils.asLong(event.getBlockPosition())));
+        node.addListener(PlayerBlockPlaceEvent.class, event ->
+                wake(event.getPlayer().getInstance(), BlockPosUtils.asLong(event.getBlockPosition())));
+        node.addListener(InstanceChunkUnloadEvent.class, event -> {
+            FluidDormancy dormancy = DORMANCIES.get(event.getInstance());
+            if (dormancy != null) dormancy.chunkUnloaded(event.getChunkX(), event.getChunkZ());
+        });
         return node;
     }
 }
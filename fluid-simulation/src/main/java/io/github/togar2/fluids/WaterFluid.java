@@ -40,7 +40,7 @@ public class WaterFluid extends FlowableFluid {
 
     @Override
     protected boolean canBeReplacedWith(Instance instance, Point point, Fluid other, Direction direction) {
-        return direction == Direction.DOWN && this == other;
+        return direction == Direction.DOWN && this != other;
     }
 
     @Override
@@ -0,0 +1,84 @@
+package io.github.togar2.fluids;
+
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.instance.InstanceContainer;
+import net.minestom.server.instance.block.Block;
+import net.minestom.server.instance.block.BlockHandler;
+import net.minestom.server.tag.Tag;
+import net.minestom.server.utils.NamespaceID;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FluidBlockCursorTest {
+
+    private static final BlockHandler HANDLER = new BlockHandler() {
+        @Override
+        public @NotNull NamespaceID getNamespaceId() {
+            return NamespaceID.from("vri", "test");
+        }
+    };
+
+    private static final List<Block> BLOCKS = List.of(
+            Block.AIR,
+            Block.STONE,
+            Block.WATER,
+            Block.WATER.withProperty("level", "3"),
+            Block.LAVA.withProperty("level", "8"),
+            Block.OAK_STAIRS.withProperty("waterlogged", "true"),
+            Block.CUT_COPPER_STAIRS.withHandler(HANDLER),
+            Block.CHEST.withTag(Tag.String("CustomName"), "test"),
+            Block.CHEST.withHandler(HANDLER)
+    );
+
+    private static InstanceContainer instance;
+
+    @BeforeAll
+    static void init() {
+        MinecraftServer.init();
+        instance = MinecraftServer.getInstanceManager().createInstanceContainer();
+        for (int chunkX = -1; chunkX <= 1; chunkX++) {
+            for (int chunkZ = -1; chunkZ <= 1; chunkZ++) {
+                instance.loadChunk(chunkX, chunkZ).join();
+            }
+        }
+    }
+
+    @Test
+    void matchesInstanceReads() {
+        Random random = new Random(7);
+        // Across chunk and section borders, including the negative ones
+        for (int i = 0; i < 2_000; i++) {
+            instance.setBlock(random.nextInt(32) - 16, random.nextInt(48) - 8, random.nextInt(32) - 16,
+                    BLOCKS.get(random.nextInt(BLOCKS.size())));
+        }
+
+        FluidBlockCursor cursor = new FluidBlockCursor();
+        cursor.open();
+        try {
+            for (int round = 0; round < 3; round++) {
+                for (int x = -16; x < 16; x++) {
+                    for (int y = -8; y < 40; y++) {
+                        for (int z = -16; z < 16; z++) {
+                            assertEquals(instance.getBlock(x, y, z), cursor.getBlock(instance, x, y, z),
+                                    x + " " + y + " " + z);
+                        }
+                    }
+                }
+
+                // Writes made while the cursor is open are seen straight away
+                for (int i = 0; i < 200; i++) {
+                    instance.setBlock(random.nextInt(32) - 16, random.nextInt(48) - 8, random.nextInt(32) - 16,
+                            BLOCKS.get(random.nextInt(BLOCKS.size())));
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.togar2.fluids;
+
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.coordinate.Vec;
+import net.minestom.server.instance.InstanceContainer;
+import net.minestom.server.instance.block.Block;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FluidCursorDifferentialTest {
+
+    // Floor reaching past the furthest block fluids can flow to from the seeded area
+    private static final int FLOOR_RADIUS = 28;
+    private static final int SEED_RADIUS = 16;
+    private static final int HEIGHT = 12;
+    private static final int TICKS = 300;
+
+    private static final List<Block> BLOCKS = List.of(
+            Block.STONE,
+            // Water twice as often as lava, so that they mix
+            Block.WATER,
+            Block.WATER,
+            Block.LAVA,
+            Block.OAK_STAIRS.withProperty("waterlogged", "true"),
+            Block.OAK_SLAB.withProperty("waterlogged", "true"),
+            Block.OAK_SLAB.withProperty("waterlogged", "false"),
+            Block.OAK_FENCE.withProperty("waterlogged", "false")
+    );
+
+    @BeforeAll
+    static void init() {
+        MinecraftServer.init();
+        MinestomFluids.init(MinecraftServer.process());
+    }
+
+    @Test
+    void cursorDoesNotChangeTheSimulation() {
+        InstanceContainer withCursor = createWorld();
+        InstanceContainer withoutCursor = createWorld();
+
+        boolean sectionCursor = MinestomFluids.sectionCursor();
+        try {
+            for (int tick = 1; tick <= TICKS; tick++) {
+                MinestomFluids.sectionCursor(true);
+                withCursor.tick(tick * 50L);
+                MinestomFluids.sectionCursor(false);
+                withoutCursor.tick(tick * 50L);
+
+                assertEquals(MinestomFluids.scheduledTickCount(withoutCursor),
+                        MinestomFluids.scheduledTickCount(withCursor), "tick " + tick);
+                if (tick % 20 == 0) assertSameBlocks(withoutCursor, withCursor, tick);
+            }
+        } finally {
+            MinestomFluids.sectionCursor(sectionCursor);
+        }
+    }
+
+    private static InstanceContainer createWorld() {
+        InstanceContainer instance = MinecraftServer.getInstanceManager().createInstanceContainer();
+        for (int chunkX = -2; chunkX < 2; chunkX++) {
+            for (int chunkZ = -2; chunkZ < 2; chunkZ++) {
+                instance.loadChunk(chunkX, chunkZ).join();
+            }
+        }
+        for (int x = -FLOOR_RADIUS; x < FLOOR_RADIUS; x++) {
+            for (int z = -FLOOR_RADIUS; z < FLOOR_RADIUS; z++) {
+                instance.setBlock(x, 0, z, Block.STONE);
+            }
+        }
+
+        // Same seed for both worlds, across chunk and section borders
+        Random random = new Random(11);
+        for (int i = 0; i < 600; i++) {
+            int x = random.nextInt(SEED_RADIUS * 2) - SEED_RADIUS;
+            int y = 1 + random.nextInt(HEIGHT);
+            int z = random.nextInt(SEED_RADIUS * 2) - SEED_RADIUS;
+            Block block = BLOCKS.get(random.nextInt(BLOCKS.size()));
+            instance.setBlock(x, y, z, block);
+            MinestomFluids.scheduleTick(instance, new Vec(x, y, z), block);
+        }
+        return instance;
+    }
+
+    private static void assertSameBlocks(InstanceContainer expected, InstanceContainer actual, int tick) {
+        for (int x = -FLOOR_RADIUS; x < FLOOR_RADIUS; x++) {
+            for (int y = 0; y <= HEIGHT + 1; y++) {
+                for (int z = -FLOOR_RADIUS; z < FLOOR_RADIUS; z++) {
+                    assertEquals(expected.getBlock(x, y, z), actual.getBlock(x, y, z),
+                            "tick " + tick + " at " + x + " " + y + " " + z);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package io.github.togar2.fluids;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minestom.vanilla.utils.BlockPosUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FluidRegionTest {
+
+    private static final int SEPARATION = 6;
+
+    @Test
+    void joinsPositionsAcrossCellBorders() {
+        LongList positions = LongList.of(
+                BlockPosUtils.asLong(5, 64, 0),
+                // Next cell, one block away
+                BlockPosUtils.asLong(6, 10, 0),
+                // Far away
+                BlockPosUtils.asLong(100, 64, 100),
+                BlockPosUtils.asLong(-1, 64, -1)
+        );
+
+        List<LongArrayList> regions = FluidRegion.partition(positions, SEPARATION);
+
+        assertEquals(List.of(
+                LongList.of(positions.getLong(0), positions.getLong(1), positions.getLong(3)),
+                LongList.of(positions.getLong(2))
+        ), regions);
+    }
+
+    @Test
+    void partitionsEveryPositionIntoSeparatedRegions() {
+        Random random = new Random(5);
+        for (int run = 0; run < 50; run++) {
+            LongSet unique = new LongOpenHashSet();
+            LongList positions = new LongArrayList();
+            int count = random.nextInt(300);
+            for (int i = 0; i < count; i++) {
+                long position = BlockPosUtils.asLong(random.nextInt(200) - 100, random.nextInt(64),
+                        random.nextInt(200) - 100);
+                if (unique.add(position)) positions.add(position);
+            }
+
+            List<LongArrayList> regions = FluidRegion.partition(positions, SEPARATION);
+
+            // Every position is in exactly one region, and each region keeps the tick order
+            int[] regionOf = new int[positions.size()];
+            int[] seen = new int[positions.size()];
+            int previousFirst = -1;
+            for (int r = 0; r < regions.size(); r++) {
+                LongArrayList region = regions.get(r);
+                assertTrue(!region.isEmpty());
+                int previous = -1;
+                for (int i = 0; i < region.size(); i++) {
+                    int index = positions.indexOf(region.getLong(i));
+                    assertTrue(index > previous, "region not in tick order");
+                    previous = index;
+                    seen[index]++;
+                    regionOf[index] = r;
+                    if (i == 0) {
+                        assertTrue(index > previousFirst, "regions not ordered by their first position");
+                        previousFirst = index;
+                    }
+                }
+            }
+            for (int i = 0; i < seen.length; i++) {
+                assertEquals(1, seen[i], "position " + i);
+            }
+
+            // Positions of different regions are at least the separation apart horizontally
+            for (int a = 0; a < positions.size(); a++) {
+                for (int b = a + 1; b < positions.size(); b++) {
+                    if (regionOf[a] == regionOf[b]) continue;
+                    long first = positions.getLong(a);
+                    long second = positions.getLong(b);
+                    int distance = Math.max(
+                            Math.abs(BlockPosUtils.getX(first) - BlockPosUtils.getX(second)),
+                            Math.abs(BlockPosUtils.getZ(first) - BlockPosUtils.getZ(second)));
+                    assertTrue(distance >= SEPARATION, "regions " + regionOf[a] + " and " + regionOf[b]
+                            + " are " + distance + " blocks apart");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package io.github.togar2.fluids;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FluidTickWheelTest {
+
+    @Test
+    void rejectsAlreadyScheduledPositions() {
+        FluidTickWheel wheel = new FluidTickWheel(Integer.MAX_VALUE);
+        assertTrue(wheel.schedule(1, 5));
+        assertFalse(wheel.schedule(1, 2));
+        assertTrue(wheel.isScheduled(1));
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    void runsTicksScheduledMoreThanOneLapAhead() {
+        FluidTickWheel wheel = new FluidTickWheel(Integer.MAX_VALUE);
+        wheel.schedule(1, 200);
+
+        for (long tick = 0; tick < 200; tick++) {
+            assertTrue(wheel.drain(tick, Integer.MAX_VALUE).isEmpty(), "ran early on tick " + tick);
+        }
+        assertEquals(LongList.of(1), wheel.drain(200, Integer.MAX_VALUE));
+        assertFalse(wheel.isScheduled(1));
+    }
+
+    @Test
+    void defersTicksAboveTheBudget() {
+        FluidTickWheel wheel = new FluidTickWheel(4);
+        for (long position = 0; position < 10; position++) {
+            wheel.schedule(position, 1);
+        }
+
+        assertEquals(LongList.of(0, 1, 2, 3), wheel.drain(1, 4));
+        assertEquals(6, wheel.deferredCount());
+        assertEquals(10 - 4, wheel.size());
+        // Deferred ticks stay scheduled
+        assertFalse(wheel.schedule(9, 3));
+
+        assertEquals(LongList.of(4, 5, 6, 7), wheel.drain(2, 4));
+        assertEquals(1, wheel.oldestDeferralAge(2));
+        assertEquals(LongList.of(8, 9), wheel.drain(3, 4));
+        assertEquals(0, wheel.deferredCount());
+        assertEquals(0, wheel.oldestDeferralAge(3));
+    }
+
+    @Test
+    void matchesReferenceQueue() {
+        // Reference: deferred ticks first, then the ticks due now in scheduling order, within the same budget
+        Map<Long, long[]> expectedScheduled = new HashMap<>(); // position -> {due tick, scheduling order}
+        Deque<Long> expectedDeferred = new ArrayDeque<>();
+        long nextOrder = 0;
+
+        Random random = new Random(7);
+        FluidTickWheel wheel = new FluidTickWheel(Integer.MAX_VALUE);
+
+        for (long tick = 0; tick < 2_000; tick++) {
+            int budget = 1 + random.nextInt(24);
+
+            LongList expected = new LongArrayList();
+            while (!expectedDeferred.isEmpty() && expected.size() < budget) {
+                long position = expectedDeferred.poll();
+                expectedScheduled.remove(position);
+                expected.add(position);
+            }
+            long currentTick = tick;
+            List<Map.Entry<Long, long[]>> due = new ArrayList<>();
+            for (Map.Entry<Long, long[]> entry : expectedScheduled.entrySet()) {
+                if (entry.getValue()[0] == currentTick && !expectedDeferred.contains(entry.getKey())) {
+                    due.add(entry);
+                }
+            }
+            due.sort(Comparator.comparingLong(entry -> entry.getValue()[1]));
+            for (Map.Entry<Long, long[]> entry : due) {
+                if (expected.size() < budget) {
+                    expected.add(entry.getKey().longValue());
+                    expectedScheduled.remove(entry.getKey());
+                } else {
+                    expectedDeferred.add(entry.getKey());
+                }
+            }
+
+            assertEquals(expected, new LongArrayList(wheel.drain(tick, budget)), "tick " + tick);
+            assertEquals(expectedScheduled.size(), wheel.size(), "tick " + tick);
+            assertEquals(expectedDeferred.size(), wheel.deferredCount(), "tick " + tick);
+
+            int scheduleCount = random.nextInt(20);
+            for (int i = 0; i < scheduleCount; i++) {
+                long position = random.nextInt(256);
+                // Mostly within a lap, sometimes several laps ahead
+                long dueTick = tick + 1 + (random.nextInt(8) == 0 ? random.nextInt(300) : random.nextInt(30));
+                boolean expectedResult = !expectedScheduled.containsKey(position);
+                if (expectedResult) {
+                    expectedScheduled.put(position, new long[]{dueTick, nextOrder++});
+                }
+                assertEquals(expectedResult, wheel.schedule(position, dueTick), "tick " + tick);
+            }
+        }
+    }
+}
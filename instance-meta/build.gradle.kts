@@ -1,3 +1,5 @@
 dependencies {
     compileOnly(project(":core"))
-}
\ No newline at end of file
+
+    testImplementation(project(":core"))
+}
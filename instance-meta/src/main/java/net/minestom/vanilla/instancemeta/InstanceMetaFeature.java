@@ -5,6 +5,7 @@ import net.minestom.server.instance.Instance;
 import net.minestom.server.utils.NamespaceID;
 import net.minestom.vanilla.VanillaRegistry;
 import net.minestom.vanilla.VanillaReimplementation;
+import net.minestom.vanilla.instancemeta.gamerules.GameRules;
 import net.minestom.vanilla.instancemeta.tickets.TicketManager;
 import org.jetbrains.annotations.NotNull;
 
@@ -15,9 +16,21 @@ import java.util.WeakHashMap;
 
 public class InstanceMetaFeature implements VanillaReimplementation.Feature {
 
+    private final @NotNull Logic logic = new Logic();
+
     @Override
     public void hook(@NotNull HookContext context) {
-        new Logic().hook(context.vri());
+        logic.hook(context.vri());
+    }
+
+    /**
+     * Gets the ticket manager of the given instance, creating it if needed.
+     *
+     * @param instance the instance
+     * @return the ticket manager
+     */
+    public @NotNull TicketManager ticketManager(@NotNull Instance instance) {
+        return logic.ticketManager(instance);
     }
 
     @Override
@@ -35,22 +48,32 @@ public class InstanceMetaFeature implements VanillaReimplementation.Feature {
 
         private void hook(@NotNull VanillaReimplementation vri) {
             vri.process().eventHandler().addListener(InstanceTickEvent.class, event -> tickInstance(event.getInstance()));
+            GameRules.init(vri.process().eventHandler());
         }
 
-        // Process all future tickets
+        private @NotNull TicketManager ticketManager(@NotNull Instance instance) {
+            return instance2TicketManager.computeIfAbsent(instance, ignored -> new TicketManager());
+        }
+
+        // Process all future and removed tickets
         private void tickInstance(@NotNull Instance instance) {
-            TicketManager ticketManager = instance2TicketManager.computeIfAbsent(instance, ignored -> new TicketManager());
+            TicketManager ticketManager = ticketManager(instance);
 
             List<TicketManager.Ticket> waitingForceLoads = instance.getTag(TicketManager.WAITING_TICKETS_TAG);
-            if (waitingForceLoads == null) {
-                return;
+            if (waitingForceLoads != null && !waitingForceLoads.isEmpty()) {
+                for (TicketManager.Ticket waitingForceLoad : waitingForceLoads) {
+                    ticketManager.addTicket(waitingForceLoad);
+                }
+                instance.setTag(TicketManager.WAITING_TICKETS_TAG, List.of());
             }
 
-            for (TicketManager.Ticket waitingForceLoad : waitingForceLoads) {
-                ticketManager.addTicket(waitingForceLoad);
+            List<TicketManager.Ticket> removingTickets = instance.getTag(TicketManager.REMOVING_TICKETS_TAG);
+            if (removingTickets != null && !removingTickets.isEmpty()) {
+                for (TicketManager.Ticket removingTicket : removingTickets) {
+                    ticketManager.removeTicket(removingTicket);
+                }
+                instance.setTag(TicketManager.REMOVING_TICKETS_TAG, List.of());
             }
-
-            instance.setTag(TicketManager.WAITING_TICKETS_TAG, List.of());
         }
     }
 }
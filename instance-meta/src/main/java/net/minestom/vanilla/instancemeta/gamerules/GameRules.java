@@ -0,0 +1,94 @@
+package net.minestom.vanilla.instancemeta.gamerules;
+
+import net.minestom.server.event.Event;
+import net.minestom.server.event.EventNode;
+import net.minestom.server.event.instance.InstanceUnregisterEvent;
+import net.minestom.server.instance.Instance;
+import net.minestom.server.tag.Tag;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-instance game rules, stored as tags on the instance.
+ * <p>
+ * Rules read every tick are also cached in plain fields, loaded from the tags the first time an instance's rules are
+ * read. Change rules through the setters of this class, not by setting the tags directly, so that the cached values
+ * stay up to date.
+ * </p>
+ */
+public class GameRules {
+
+    /**
+     * The amount of random ticks per chunk section per tick.
+     * Defaults to the {@code vri.gamerule.randomtickspeed} system property, or 3.
+     */
+    public static final Tag<Integer> RANDOM_TICK_SPEED = Tag.Integer("vri:gamerule:random_tick_speed")
+            .defaultValue(Integer.getInteger("vri.gamerule.randomtickspeed", 3));
+
+    /**
+     * Integer game rules by their vanilla name
+     */
+    public static final Map<String, Tag<Integer>> INTEGER_RULES = Map.of(
+            "randomTickSpeed", RANDOM_TICK_SPEED
+    );
+
+    // Cached rules by instance, removed when the instance is unregistered
+    private static final Map<Instance, GameRules> instance2Rules = new ConcurrentHashMap<>();
+
+    private volatile int randomTickSpeed;
+
+    private GameRules(@NotNull Instance instance) {
+        this.randomTickSpeed = instance.getTag(RANDOM_TICK_SPEED);
+    }
+
+    public static void init(@NotNull EventNode<Event> eventNode) {
+        eventNode.addListener(InstanceUnregisterEvent.class, event -> instance2Rules.remove(event.getInstance()));
+    }
+
+    private static @NotNull GameRules of(@NotNull Instance instance) {
+        // Plain lookup first, computeIfAbsent may lock even when the rules exist
+        GameRules rules = instance2Rules.get(instance);
+        if (rules != null) {
+            return rules;
+        }
+        return instance2Rules.computeIfAbsent(instance, GameRules::new);
+    }
+
+    public static int randomTickSpeed(@NotNull Instance instance) {
+        return of(instance).randomTickSpeed;
+    }
+
+    public static void randomTickSpeed(@NotNull Instance instance, int randomTickSpeed) {
+        setInteger(instance, RANDOM_TICK_SPEED, randomTickSpeed);
+    }
+
+    /**
+     * Gets an integer game rule of an instance, as seen by the systems reading it.
+     *
+     * @param instance the instance
+     * @param rule     the rule, one of {@link #INTEGER_RULES}
+     * @return the value
+     */
+    public static int getInteger(@NotNull Instance instance, @NotNull Tag<Integer> rule) {
+        if (rule == RANDOM_TICK_SPEED) {
+            return of(instance).randomTickSpeed;
+        }
+        return instance.getTag(rule);
+    }
+
+    /**
+     * Sets an integer game rule of an instance.
+     *
+     * @param instance the instance
+     * @param rule     the rule, one of {@link #INTEGER_RULES}
+     * @param value    the new value
+     */
+    public static void setInteger(@NotNull Instance instance, @NotNull Tag<Integer> rule, int value) {
+        instance.setTag(rule, value);
+        if (rule == RANDOM_TICK_SPEED) {
+            of(instance).randomTickSpeed = value;
+        }
+    }
+}
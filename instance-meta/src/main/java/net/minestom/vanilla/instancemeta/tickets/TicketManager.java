@@ -4,8 +4,9 @@ import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.longs.Long2ShortMap;
 import it.unimi.dsi.fastutil.longs.Long2ShortOpenHashMap;
-import it.unimi.dsi.fastutil.objects.Object2ShortMap;
-import it.unimi.dsi.fastutil.objects.Object2ShortOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.longs.LongSets;
 import it.unimi.dsi.fastutil.shorts.Short2IntMap;
 import it.unimi.dsi.fastutil.shorts.Short2IntOpenHashMap;
 import net.minestom.server.tag.Tag;
@@ -16,8 +17,8 @@ import net.minestom.server.utils.chunk.ChunkUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /*
 Tickets are used to choose when & how to load chunks, when and how to tick entities, and when and how to tick
@@ -47,6 +48,11 @@ public class TicketManager {
             Tag.Structure("vri:instancemeta:removing_tickets", TicketManager.Ticket.SERIALIZER)
                     .list();
 
+    /**
+     * The minimum ticket value at which a chunk is entity ticking, and is random ticked
+     */
+    public static final short ENTITY_TICKING = 3;
+
     // Vanilla ticket values
     public static final short PLAYER_TICKET = 34 - 31;
     public static final short FORCED_TICKET = 34 - 31;
@@ -59,13 +65,14 @@ public class TicketManager {
     public static final short TEMPORARY_TICKET = 34 - 33;
 
     /**
-     * The first Long is the target chunk
-     * The second Long is the source chunk
-     * The resulting Short is the value for this chunk
+     * The Long is the target chunk
+     * The resulting ExternalValues are the values it receives from every source chunk
      */
-    private final Object2ShortMap<Source2Target> externalTicketValues = new Object2ShortOpenHashMap<>();
+    private final Long2ObjectMap<ExternalValues> externalTicketValues = new Long2ObjectOpenHashMap<>();
     private final Long2ObjectMap<Short2IntMap> internalTicketValues = new Long2ObjectOpenHashMap<>();
     private final Long2ShortMap currentTicketValue = new Long2ShortOpenHashMap();
+    // Chunks whose current value is at least ENTITY_TICKING, kept up to date as values change
+    private final LongSet entityTickingChunks = new LongOpenHashSet();
 
 
     public interface Ticket {
@@ -102,7 +109,52 @@ public class TicketManager {
     private record TicketImpl(short value, long chunk) implements Ticket {
     }
 
-    private record Source2Target(long source, long target) {
+    /**
+     * The values a chunk receives from the tickets of its source chunks, counted per value so that the highest one
+     * is found without looking at every source
+     */
+    static class ExternalValues {
+        private final Long2ShortMap source2Value = new Long2ShortOpenHashMap();
+        // Sources per value, values below 1 are counted as 0
+        private int[] counts = new int[START_TICKET + 1];
+        private short highest = 0;
+
+        void put(long source, short value) {
+            remove(source);
+            source2Value.put(source, value);
+            int level = Math.max(value, 0);
+            if (level >= counts.length) {
+                counts = Arrays.copyOf(counts, Math.max(level + 1, counts.length * 2));
+            }
+            counts[level]++;
+            if (value > highest) {
+                highest = value;
+            }
+        }
+
+        void remove(long source) {
+            if (!source2Value.containsKey(source)) {
+                return;
+            }
+            counts[Math.max(source2Value.remove(source), 0)]--;
+            // Bounded by the highest ticket value, not by the amount of sources
+            while (highest > 0 && counts[highest] == 0) {
+                highest--;
+            }
+        }
+
+        short highest() {
+            return highest;
+        }
+
+        boolean isEmpty() {
+            return source2Value.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return source2Value.toString();
+        }
     }
 
     public TicketManager() {
@@ -126,71 +178,23 @@ public class TicketManager {
      * @param value the value of the ticket
      */
     public void addTicket(short value, long chunk) {
+        prepareChunk(chunk);
 
         // Add value to internal
         Short2IntMap internalValues = internalTicketValues.get(chunk);
-        internalValues.putIfAbsent(value, 0);
+        short previousHighest = highestInternalValue(internalValues);
         internalValues.put(value, internalValues.get(value) + 1);
 
-        externalTicketValues.put(new Source2Target(chunk, chunk), value);
-        recalculateChunkValue(chunk);
-
-        // Add values to surrounding external
-        short currentSourceValue = value;
-        int originX = ChunkUtils.getChunkCoordX(chunk);
-        int originZ = ChunkUtils.getChunkCoordZ(chunk);
-
-        while (currentSourceValue > 1) {
-            // Find starting positions + starting external value
-            int halfWidth = currentSourceValue - 1;
-            short externalValue = (short) (value - currentSourceValue + 1);
-
-            // Left starting position
-            int leftX = originX - halfWidth;
-            int leftZ = originZ + halfWidth;
-
-            // Top starting position
-            int topX = originX - halfWidth;
-            int topZ = originZ - halfWidth;
-
-            // Right starting position
-            int rightX = originX + halfWidth;
-            int rightZ = originZ - halfWidth;
-
-            // Down starting position
-            int downX = originX + halfWidth;
-            int downZ = originZ + halfWidth;
-
-            // Do all squares
-            for (int offset = 0; offset < ((halfWidth * 2) + 1); offset++) {
-
-                { // Left side
-                    long chunkIndex = ChunkUtils.getChunkIndex(leftX, leftZ - offset);
-                    externalTicketValues.put(new Source2Target(chunkIndex, chunk), externalValue);
-                    recalculateChunkValue(chunkIndex);
-                }
-
-                { // Top side
-                    long chunkIndex = ChunkUtils.getChunkIndex(topX + offset, topZ);
-                    externalTicketValues.put(new Source2Target(chunkIndex, chunk), externalValue);
-                    recalculateChunkValue(chunkIndex);
-                }
-
-                { // Right side
-                    long chunkIndex = ChunkUtils.getChunkIndex(rightX, rightZ + offset);
-                    externalTicketValues.put(new Source2Target(chunkIndex, chunk), externalValue);
-                    recalculateChunkValue(chunkIndex);
-                }
-
-                { // Downside
-                    long chunkIndex = ChunkUtils.getChunkIndex(downX - offset, downZ);
-                    externalTicketValues.put(new Source2Target(chunkIndex, chunk), externalValue);
-                    recalculateChunkValue(chunkIndex);
-                }
-            }
+        propagate(chunk, previousHighest, highestInternalValue(internalValues));
+    }
 
-            currentSourceValue--;
-        }
+    /**
+     * Removes a ticket and updates surrounding chunks.
+     *
+     * @param ticket the ticket to remove
+     */
+    public void removeTicket(@NotNull Ticket ticket) {
+        removeTicket(ticket.chunk(), ticket.value());
     }
 
     /**
@@ -200,108 +204,59 @@ public class TicketManager {
      * @param value the value of the ticket being removed
      */
     public void removeTicket(long chunk, short value) {
+        prepareChunk(chunk);
 
         // Remove value from internal
         Short2IntMap internalValues = internalTicketValues.get(chunk);
-
-        if (internalValues.containsKey(value)) {
-            int current = internalValues.get(value);
-
-            if (current == 1) {
-                internalValues.remove(value);
-            } else {
-                internalValues.put(value, current - 1);
-            }
+        int current = internalValues.get(value);
+        if (current == 0) {
+            // No such ticket
             return;
         }
 
-        // Remove value from external access into this chunk
-        externalTicketValues.removeShort(new Source2Target(chunk, chunk));
-        recalculateChunkValue(chunk);
+        short previousHighest = highestInternalValue(internalValues);
+        if (current == 1) {
+            internalValues.remove(value);
+        } else {
+            internalValues.put(value, current - 1);
+        }
 
-        // Remove values from surrounding external
-        short highestInternalValue = 0;
+        propagate(chunk, previousHighest, highestInternalValue(internalValues));
+    }
 
+    private static short highestInternalValue(Short2IntMap internalValues) {
+        short highest = 0;
         for (short internalValue : internalValues.keySet()) {
-            if (internalValue > highestInternalValue) {
-                highestInternalValue = internalValue;
+            if (internalValue > highest) {
+                highest = internalValue;
             }
         }
+        return highest;
+    }
 
-        if (highestInternalValue > 0) {
-            externalTicketValues.put(new Source2Target(chunk, chunk), highestInternalValue);
+    /**
+     * Updates the values a chunk gives to itself and the chunks around it after its highest ticket changed.
+     * A ticket of value v gives v - d to every chunk at distance d below v.
+     */
+    private void propagate(long source, short previousHighest, short highest) {
+        if (previousHighest == highest) {
+            return;
         }
 
-        short previousSourceValue = value;
-        int originX = ChunkUtils.getChunkCoordX(chunk);
-        int originZ = ChunkUtils.getChunkCoordZ(chunk);
-
-        while (previousSourceValue > 1) {
-            // Find starting positions + starting external value
-            int halfWidth = previousSourceValue - 1;
-
-            // Left starting position
-            int leftX = originX - halfWidth;
-            int leftZ = originZ + halfWidth;
-
-            // Top starting position
-            int topX = originX - halfWidth;
-            int topZ = originZ - halfWidth;
-
-            // Right starting position
-            int rightX = originX + halfWidth;
-            int rightZ = originZ - halfWidth;
-
-            // Down starting position
-            int downX = originX + halfWidth;
-            int downZ = originZ + halfWidth;
-
-            // Do all squares
-            for (int offset = 0; offset < ((halfWidth * 2) + 1); offset++) {
-
-                { // Left side
-                    long chunkIndex = ChunkUtils.getChunkIndex(leftX, leftZ - offset);
-                    if (highestInternalValue <= 0) {
-                        externalTicketValues.removeShort(new Source2Target(chunkIndex, chunk));
-                    } else {
-                        externalTicketValues.put(new Source2Target(chunkIndex, chunk), highestInternalValue);
-                    }
-                    recalculateChunkValue(chunkIndex);
-                }
-
-                { // Top side
-                    long chunkIndex = ChunkUtils.getChunkIndex(topX + offset, topZ);
-                    if (highestInternalValue <= 0) {
-                        externalTicketValues.removeShort(new Source2Target(chunkIndex, chunk));
-                    } else {
-                        externalTicketValues.put(new Source2Target(chunkIndex, chunk), highestInternalValue);
-                    }
-                    recalculateChunkValue(chunkIndex);
-                }
-
-                { // Right side
-                    long chunkIndex = ChunkUtils.getChunkIndex(rightX, rightZ + offset);
-                    if (highestInternalValue <= 0) {
-                        externalTicketValues.removeShort(new Source2Target(chunkIndex, chunk));
-                    } else {
-                        externalTicketValues.put(new Source2Target(chunkIndex, chunk), highestInternalValue);
-                    }
-                    recalculateChunkValue(chunkIndex);
-                }
-
-                { // Downside
-                    long chunkIndex = ChunkUtils.getChunkIndex(downX - offset, downZ);
-                    if (highestInternalValue <= 0) {
-                        externalTicketValues.removeShort(new Source2Target(chunkIndex, chunk));
-                    } else {
-                        externalTicketValues.put(new Source2Target(chunkIndex, chunk), highestInternalValue);
-                    }
-                    recalculateChunkValue(chunkIndex);
+        int originX = ChunkUtils.getChunkCoordX(source);
+        int originZ = ChunkUtils.getChunkCoordZ(source);
+        int radius = Math.max(previousHighest, highest) - 1;
+        for (int offsetX = -radius; offsetX <= radius; offsetX++) {
+            for (int offsetZ = -radius; offsetZ <= radius; offsetZ++) {
+                long target = ChunkUtils.getChunkIndex(originX + offsetX, originZ + offsetZ);
+                int distance = Math.max(Math.abs(offsetX), Math.abs(offsetZ));
+                short externalValue = (short) (highest - distance);
+                if (externalValue > 0) {
+                    putExternalValue(source, target, externalValue);
+                } else {
+                    removeExternalValue(source, target);
                 }
             }
-
-            previousSourceValue--;
-            highestInternalValue--;
         }
     }
 
@@ -315,6 +270,18 @@ public class TicketManager {
         return currentTicketValue.get(chunkIndex);
     }
 
+    /**
+     * Gets the chunks that are entity ticking, that is whose ticket value is at least {@link #ENTITY_TICKING}.
+     * <p>
+     * This set is updated as tickets are added and removed, and must not be modified.
+     * </p>
+     *
+     * @return the chunk indices of the entity ticking chunks
+     */
+    public @NotNull LongSet entityTickingChunks() {
+        return LongSets.unmodifiable(entityTickingChunks);
+    }
+
     /**
      * Gets information on the tickets for this specified chunk
      *
@@ -325,11 +292,7 @@ public class TicketManager {
 
         return "Current Value: " + currentTicketValue.get(chunkIndex) + "\n"
                 + "Internal Tickets: " + internalTicketValues.get(chunkIndex) + "\n"
-                + "External Tickets: " + " (" + externalTicketValues.object2ShortEntrySet()
-                .stream()
-                .filter(entry -> entry.getKey().target() == chunkIndex)
-                .map(String::valueOf)
-                .collect(Collectors.joining(", ")) + " )";
+                + "External Tickets: " + " (" + externalTicketValues.get(chunkIndex) + " )";
     }
 
     private void handleInstanceChunkLoad(long chunkIndex) {
@@ -343,25 +306,38 @@ public class TicketManager {
         internalTicketValues.computeIfAbsent(chunk, k -> new Short2IntOpenHashMap());
     }
 
-    private static class MutableShort {
-        private short value;
+    private void putExternalValue(long source, long target, short value) {
+        externalTicketValues.computeIfAbsent(target, ignored -> new ExternalValues()).put(source, value);
+        recalculateChunkValue(target);
+    }
+
+    private void removeExternalValue(long source, long target) {
+        ExternalValues values = externalTicketValues.get(target);
+        if (values != null) {
+            values.remove(source);
+            if (values.isEmpty()) {
+                externalTicketValues.remove(target);
+            }
+        }
+        recalculateChunkValue(target);
     }
 
     private void recalculateChunkValue(long chunkIndex) {
         prepareChunk(chunkIndex);
 
-        MutableShort highest = new MutableShort();
-        highest.value = 0;
-
-        externalTicketValues.forEach((source2Target, value) -> {
-            if (source2Target.target() == chunkIndex) {
-                if (value > highest.value) {
-                    highest.value = value;
-                }
-            }
-        });
+        ExternalValues values = externalTicketValues.get(chunkIndex);
+        short highest = values == null ? 0 : values.highest();
 
         // Set new value
-        this.currentTicketValue.put(chunkIndex, highest.value);
+        this.currentTicketValue.put(chunkIndex, highest);
+        updateEntityTicking(chunkIndex, highest);
+    }
+
+    private void updateEntityTicking(long chunkIndex, short value) {
+        if (value >= ENTITY_TICKING) {
+            entityTickingChunks.add(chunkIndex);
+        } else {
+            entityTickingChunks.remove(chunkIndex);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+package net.minestom.vanilla.instancemeta.tickets;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExternalValuesTest {
+
+    @Test
+    void tracksTheHighestValue() {
+        TicketManager.ExternalValues values = new TicketManager.ExternalValues();
+        assertTrue(values.isEmpty());
+        assertEquals(0, values.highest());
+
+        values.put(1, (short) 3);
+        values.put(2, (short) 7);
+        values.put(3, (short) 7);
+        assertEquals(7, values.highest());
+
+        values.remove(2);
+        assertEquals(7, values.highest());
+        values.remove(3);
+        assertEquals(3, values.highest());
+        values.remove(1);
+        assertEquals(0, values.highest());
+        assertTrue(values.isEmpty());
+    }
+
+    @Test
+    void replacesTheValueOfASource() {
+        TicketManager.ExternalValues values = new TicketManager.ExternalValues();
+        values.put(1, (short) 9);
+        values.put(1, (short) 2);
+        assertEquals(2, values.highest());
+
+        values.remove(1);
+        values.remove(1);
+        assertEquals(0, values.highest());
+        assertTrue(values.isEmpty());
+    }
+
+    @Test
+    void growsPastTheStartTicket() {
+        TicketManager.ExternalValues values = new TicketManager.ExternalValues();
+        values.put(1, (short) (TicketManager.START_TICKET * 3));
+        values.put(2, (short) 1);
+        assertEquals(TicketManager.START_TICKET * 3, values.highest());
+        values.remove(1);
+        assertEquals(1, values.highest());
+    }
+
+    @Test
+    void matchesBruteForceMaximum() {
+        Random random = new Random(9);
+        TicketManager.ExternalValues values = new TicketManager.ExternalValues();
+        Map<Long, Short> expected = new HashMap<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            long source = random.nextInt(64);
+            if (random.nextInt(3) == 0) {
+                values.remove(source);
+                expected.remove(source);
+            } else {
+                // Includes values below 1, which never count as the highest
+                short value = (short) (random.nextInt(TicketManager.START_TICKET + 8) - 4);
+                values.put(source, value);
+                expected.put(source, value);
+            }
+
+            short highest = 0;
+            for (short value : expected.values()) {
+                highest = (short) Math.max(highest, value);
+            }
+            assertEquals(highest, values.highest(), "step " + i);
+            assertEquals(expected.isEmpty(), values.isEmpty(), "step " + i);
+        }
+        assertFalse(expected.isEmpty());
+    }
+}
@@ -0,0 +1,81 @@
+package net.minestom.vanilla.instancemeta.tickets;
+
+import net.minestom.server.utils.chunk.ChunkUtils;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TicketManagerTest {
+
+    private static final long ORIGIN = ChunkUtils.getChunkIndex(0, 0);
+
+    @Test
+    void ticketValueDecreasesWithDistance() {
+        TicketManager manager = new TicketManager();
+        manager.addTicket((short) 5, ORIGIN);
+
+        assertEquals(5, manager.getTicketValue(ORIGIN));
+        assertEquals(4, manager.getTicketValue(ChunkUtils.getChunkIndex(1, -1)));
+        assertEquals(2, manager.getTicketValue(ChunkUtils.getChunkIndex(-3, 2)));
+        assertEquals(1, manager.getTicketValue(ChunkUtils.getChunkIndex(4, 4)));
+        assertEquals(0, manager.getTicketValue(ChunkUtils.getChunkIndex(5, 0)));
+    }
+
+    @Test
+    void removingTheOnlyTicketClearsItsArea() {
+        TicketManager manager = new TicketManager();
+        manager.addTicket((short) 5, ORIGIN);
+        assertFalse(manager.entityTickingChunks().isEmpty());
+
+        manager.removeTicket(ORIGIN, (short) 5);
+        for (int x = -5; x <= 5; x++) {
+            for (int z = -5; z <= 5; z++) {
+                assertEquals(0, manager.getTicketValue(ChunkUtils.getChunkIndex(x, z)));
+            }
+        }
+        assertTrue(manager.entityTickingChunks().isEmpty());
+    }
+
+    @Test
+    void removingALowerTicketKeepsTheHigherOne() {
+        TicketManager manager = new TicketManager();
+        manager.addTicket((short) 5, ORIGIN);
+        manager.addTicket((short) 3, ORIGIN);
+        assertEquals(5, manager.getTicketValue(ORIGIN));
+
+        manager.removeTicket(ORIGIN, (short) 3);
+        assertEquals(5, manager.getTicketValue(ORIGIN));
+        assertEquals(3, manager.getTicketValue(ChunkUtils.getChunkIndex(2, 0)));
+
+        manager.removeTicket(ORIGIN, (short) 5);
+        assertEquals(0, manager.getTicketValue(ORIGIN));
+    }
+
+    @Test
+    void removingAMissingTicketChangesNothing() {
+        TicketManager manager = new TicketManager();
+        manager.addTicket((short) 4, ORIGIN);
+        manager.removeTicket(ORIGIN, (short) 7);
+        assertEquals(4, manager.getTicketValue(ORIGIN));
+    }
+
+    @Test
+    void overlappingTicketsKeepTheHighestValue() {
+        TicketManager manager = new TicketManager();
+        long other = ChunkUtils.getChunkIndex(3, 0);
+        manager.addTicket((short) 4, ORIGIN);
+        manager.addTicket((short) 4, other);
+
+        long between = ChunkUtils.getChunkIndex(1, 0);
+        assertEquals(3, manager.getTicketValue(between));
+        assertTrue(manager.entityTickingChunks().contains(between));
+
+        manager.removeTicket(ORIGIN, (short) 4);
+        assertEquals(2, manager.getTicketValue(between));
+        assertFalse(manager.entityTickingChunks().contains(between));
+        assertEquals(4, manager.getTicketValue(other));
+        assertTrue(manager.entityTickingChunks().contains(other));
+    }
+}